@@ -0,0 +1,214 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingView;
+import ru.practicum.shareit.item.Comment;
+import ru.practicum.shareit.item.CommentMapperImpl;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.OwnerItemView;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.user.User;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Deterministic datasets for the benchmarks. Sizes come from JMH parameters, override them with {@code -p}.
+ */
+public final class BenchmarkData {
+    public static final LocalDateTime NOW = LocalDateTime.of(2030, 6, 1, 12, 0);
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Configured like the application's mapper: ISO dates and optional property filters.
+     */
+    public static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    /**
+     * Items of one owner, with bookings spread around {@link #NOW} and comments by the bookers.
+     */
+    public static Portfolio portfolio(int items, int bookingsPerItem, int commentsPerItem) {
+        SplittableRandom random = new SplittableRandom(items);
+        User owner = new User(1L, "Owner", "owner@example.com");
+        List<User> bookers = new ArrayList<>();
+        for (long id = 2; id < 2 + Math.max(1, bookingsPerItem); id++) {
+            bookers.add(new User(id, "Booker " + id, "booker" + id + "@example.com"));
+        }
+        Portfolio portfolio = new Portfolio(owner, new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        long bookingId = 1;
+        long commentId = 1;
+        for (long itemId = 1; itemId <= items; itemId++) {
+            Item item = new Item(itemId, "Cordless drill " + itemId,
+                    "Cordless drill with two batteries, a charger and a case", true, owner, null, 0L);
+            portfolio.items().add(item);
+            for (int i = 0; i < bookingsPerItem; i++) {
+                LocalDateTime start = NOW.plusDays(i * 2L - bookingsPerItem).plusHours(random.nextInt(12));
+                BookingPhase phase = start.plusDays(1).isBefore(NOW) ? BookingPhase.FINISHED
+                        : start.isBefore(NOW) ? BookingPhase.ACTIVE : BookingPhase.UPCOMING;
+                portfolio.bookings().add(new Booking(bookingId++, start, start.plusDays(1), item,
+                        owner.getId(), bookers.get(i), BookingStatus.APPROVED, phase, 0L));
+            }
+            for (int i = 0; i < commentsPerItem; i++) {
+                Comment comment = new Comment();
+                comment.setId(commentId++);
+                comment.setText("Worked fine, batteries lasted the whole day " + i);
+                comment.setItem(item);
+                comment.setAuthor(bookers.get(i % bookers.size()));
+                comment.setCreated(NOW.minusDays(i + 1));
+                portfolio.comments().add(comment);
+            }
+        }
+        return portfolio;
+    }
+
+    public record Portfolio(User owner, List<Item> items, List<Booking> bookings, List<Comment> comments) {
+        /**
+         * Latest booking that started before {@link #NOW} per item, like the old owner query returned.
+         */
+        public List<Booking> lastBookings() {
+            return bookings.stream()
+                    .filter(b -> b.getStart().isBefore(NOW))
+                    .collect(Collectors.toMap(b -> b.getItem().getId(), b -> b,
+                            (a, b) -> a.getEnd().isAfter(b.getEnd()) ? a : b))
+                    .values().stream().toList();
+        }
+
+        /**
+         * Earliest booking that starts after {@link #NOW} per item.
+         */
+        public List<Booking> nextBookings() {
+            return bookings.stream()
+                    .filter(b -> b.getStart().isAfter(NOW))
+                    .collect(Collectors.toMap(b -> b.getItem().getId(), b -> b,
+                            (a, b) -> a.getStart().isBefore(b.getStart()) ? a : b))
+                    .values().stream().toList();
+        }
+
+        public List<BookingView> bookingViews() {
+            return bookings.stream()
+                    .map(b -> new BookingView(b.getId(), b.getStart(), b.getEnd(), b.getStatus(), b.getItem().getId(),
+                            b.getItem().getName(), owner.getId(), b.getBooker().getId()))
+                    .toList();
+        }
+
+        /**
+         * Rows as {@code ItemRepository.findOwnerItemViews} returns them, comments aggregated to JSON.
+         */
+        public List<OwnerItemView> ownerItemViews(ObjectMapper objectMapper) {
+            CommentMapperImpl commentMapper = new CommentMapperImpl();
+            Map<Long, LocalDateTime> last = lastBookings().stream()
+                    .collect(Collectors.toMap(b -> b.getItem().getId(), Booking::getStart));
+            Map<Long, LocalDateTime> next = nextBookings().stream()
+                    .collect(Collectors.toMap(b -> b.getItem().getId(), Booking::getStart));
+            Map<Long, List<CommentDto>> comments = this.comments.stream()
+                    .collect(Collectors.groupingBy(c -> c.getItem().getId(),
+                            Collectors.mapping(commentMapper::toCommentDto,
+                                    Collectors.toList())));
+            return items.stream()
+                    .<OwnerItemView>map(item -> new Row(item.getId(), item.getVersion(), item.getName(),
+                            item.getDescription(), item.isAvailable(), last.get(item.getId()), next.get(item.getId()),
+                            toJson(objectMapper, comments.get(item.getId())),
+                            (long) comments.getOrDefault(item.getId(), List.of()).size()))
+                    .toList();
+        }
+    }
+
+    private static String toJson(ObjectMapper objectMapper, List<CommentDto> comments) {
+        if (comments == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(comments);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Row(Long id, Long version, String name, String description, Boolean available,
+                       LocalDateTime lastBooking, LocalDateTime nextBooking, String comments,
+                       Long commentCount) implements OwnerItemView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getVersion() {
+            return version;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public Boolean getAvailable() {
+            return available;
+        }
+
+        @Override
+        public Long getRequestId() {
+            return null;
+        }
+
+        @Override
+        public LocalDateTime getLastBooking() {
+            return lastBooking;
+        }
+
+        @Override
+        public LocalDateTime getNextBooking() {
+            return nextBooking;
+        }
+
+        @Override
+        public String getComments() {
+            return comments;
+        }
+
+        @Override
+        public Long getCommentCount() {
+            return commentCount;
+        }
+
+        @Override
+        public Long getBookingCount() {
+            return 0L;
+        }
+
+        @Override
+        public Long getRentalCount() {
+            return 0L;
+        }
+
+        @Override
+        public LocalDateTime getLastRented() {
+            return null;
+        }
+    }
+}
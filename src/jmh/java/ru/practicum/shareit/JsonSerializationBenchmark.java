@@ -0,0 +1,68 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingMapperImpl;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.CommentMapperImpl;
+import ru.practicum.shareit.item.ItemMapperImpl;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Serialization of response pages as the controllers return them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    @Param({"20", "1000"})
+    private int pageSize;
+
+    @Param({"5"})
+    private int commentsPerItem;
+
+    private ObjectWriter writer;
+    private List<ItemDto> itemPage;
+    private List<BookingDto> bookingPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkData.objectMapper();
+        writer = objectMapper.writer();
+        BenchmarkData.Portfolio portfolio = BenchmarkData.portfolio(pageSize, 1, commentsPerItem);
+        CommentMapperImpl commentMapper = new CommentMapperImpl();
+        Map<Long, List<CommentDto>> comments = portfolio.comments().stream()
+                .collect(Collectors.groupingBy(c -> c.getItem().getId(),
+                        Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())));
+        ItemMapperImpl itemMapper = new ItemMapperImpl();
+        itemPage = portfolio.items().stream()
+                .map(item -> itemMapper.toItemDto(item, portfolio.bookings().get(0), null,
+                        comments.getOrDefault(item.getId(), List.of())))
+                .toList();
+        BookingMapperImpl bookingMapper = new BookingMapperImpl();
+        bookingPage = portfolio.bookingViews().stream()
+                .map(bookingMapper::toBookingDto)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] itemPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(itemPage);
+    }
+
+    @Benchmark
+    public byte[] bookingPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(bookingPage);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingMapperImpl;
+import ru.practicum.shareit.booking.BookingView;
+import ru.practicum.shareit.item.CommentMapperImpl;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemMapperImpl;
+import ru.practicum.shareit.item.OwnerItemView;
+import ru.practicum.shareit.item.dto.CommentDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of the generated MapStruct mappers per mapped row. Each invocation maps the whole dataset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"1000"})
+    private int items;
+
+    @Param({"4"})
+    private int bookingsPerItem;
+
+    @Param({"5"})
+    private int commentsPerItem;
+
+    private final ItemMapper itemMapper = new ItemMapperImpl();
+    private final BookingMapper bookingMapper = new BookingMapperImpl();
+    private List<Item> ownerItems;
+    private Map<Long, Booking> lastBookings;
+    private Map<Long, Booking> nextBookings;
+    private Map<Long, List<CommentDto>> comments;
+    private List<OwnerItemView> ownerItemViews;
+    private List<Booking> bookings;
+    private List<BookingView> bookingViews;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.Portfolio portfolio = BenchmarkData.portfolio(items, bookingsPerItem, commentsPerItem);
+        ownerItems = portfolio.items();
+        lastBookings = portfolio.lastBookings().stream()
+                .collect(Collectors.toMap(b -> b.getItem().getId(), b -> b));
+        nextBookings = portfolio.nextBookings().stream()
+                .collect(Collectors.toMap(b -> b.getItem().getId(), b -> b));
+        CommentMapperImpl commentMapper = new CommentMapperImpl();
+        comments = portfolio.comments().stream()
+                .collect(Collectors.groupingBy(c -> c.getItem().getId(),
+                        Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())));
+        ownerItemViews = portfolio.ownerItemViews(BenchmarkData.objectMapper());
+        bookings = portfolio.bookings();
+        bookingViews = portfolio.bookingViews();
+    }
+
+    @Benchmark
+    public void itemWithBookingsAndComments(Blackhole bh) {
+        for (Item item : ownerItems) {
+            Long id = item.getId();
+            bh.consume(itemMapper.toItemDto(item, lastBookings.get(id), nextBookings.get(id),
+                    comments.getOrDefault(id, List.of())));
+        }
+    }
+
+    @Benchmark
+    public void itemFromOwnerView(Blackhole bh) {
+        for (OwnerItemView view : ownerItemViews) {
+            bh.consume(itemMapper.toItemDto(view, comments.getOrDefault(view.getId(), List.of())));
+        }
+    }
+
+    @Benchmark
+    public void bookingFromEntity(Blackhole bh) {
+        for (Booking booking : bookings) {
+            bh.consume(bookingMapper.toBookingDto(booking));
+        }
+    }
+
+    @Benchmark
+    public void bookingFromView(Blackhole bh) {
+        for (BookingView view : bookingViews) {
+            bh.consume(bookingMapper.toBookingDto(view));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.booking;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the in-memory {@link BookingIntervalIndex} with the database overlap query
+ * used by {@code BookingServiceImpl.createBooking}, and times a month of {@code GET /items/{id}/availability}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingOverlapBenchmark {
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final String OVERLAP_SQL = "select b.id from bookings b where b.item_id = ? and b.status = ? " +
+            "and b.end_date > ? and b.start_date < ? fetch first 1 rows only";
+
+    @Param({"10000", "100000", "1000000"})
+    private int bookings;
+
+    @Param({"1000"})
+    private int items;
+
+    private Connection connection;
+    private PreparedStatement overlapQuery;
+    private BookingIntervalIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:overlap-" + bookings + ";DB_CLOSE_DELAY=-1");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("create table bookings (id bigint primary key, start_date timestamp, end_date timestamp, " +
+                    "item_id bigint not null, booker_id bigint not null, status varchar(8) not null)");
+        }
+        List<List<BookingInterval>> intervalsByItem = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            intervalsByItem.add(new ArrayList<>());
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into bookings values (?, ?, ?, ?, 1, 'APPROVED')")) {
+            for (long id = 0; id < bookings; id++) {
+                int item = (int) (id % items);
+                LocalDateTime start = slotStart(id / items);
+                LocalDateTime end = start.plusHours(20);
+                insert.setLong(1, id);
+                insert.setTimestamp(2, Timestamp.valueOf(start));
+                insert.setTimestamp(3, Timestamp.valueOf(end));
+                insert.setLong(4, item);
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+                intervalsByItem.get(item).add(interval(id, start, end));
+            }
+            insert.executeBatch();
+        }
+        overlapQuery = connection.prepareStatement(OVERLAP_SQL);
+
+        BookingRepository repository = mock(BookingRepository.class);
+        when(repository.findIntervalsByItemIdAndStatus(anyLong(), any()))
+                .thenAnswer(inv -> intervalsByItem.get(((Long) inv.getArgument(0)).intValue()));
+        index = new BookingIntervalIndex(repository);
+        for (long item = 0; item < items; item++) {
+            index.hasOverlap(item, EPOCH, EPOCH);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement drop = connection.createStatement()) {
+            drop.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void inMemoryIndex(Blackhole bh) {
+        long item = ThreadLocalRandom.current().nextLong(items);
+        LocalDateTime start = probeStart();
+        bh.consume(index.hasOverlap(item, start, start.plusHours(2)));
+    }
+
+    @Benchmark
+    public void availabilityMonth(Blackhole bh) {
+        long item = ThreadLocalRandom.current().nextLong(items);
+        LocalDateTime from = probeStart();
+        bh.consume(index.findBusy(item, from, from.plusDays(30)));
+    }
+
+    @Benchmark
+    public void databaseQuery(Blackhole bh) throws SQLException {
+        long item = ThreadLocalRandom.current().nextLong(items);
+        LocalDateTime start = probeStart();
+        overlapQuery.setLong(1, item);
+        overlapQuery.setString(2, BookingStatus.APPROVED.name());
+        overlapQuery.setTimestamp(3, Timestamp.valueOf(start));
+        overlapQuery.setTimestamp(4, Timestamp.valueOf(start.plusHours(2)));
+        try (ResultSet rs = overlapQuery.executeQuery()) {
+            bh.consume(rs.next());
+        }
+    }
+
+    private LocalDateTime probeStart() {
+        long perItem = Math.max(1, bookings / items);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return slotStart(random.nextLong(perItem)).plusHours(random.nextInt(24));
+    }
+
+    private static LocalDateTime slotStart(long slot) {
+        return EPOCH.plusDays(slot);
+    }
+
+    private static BookingInterval interval(Long id, LocalDateTime start, LocalDateTime end) {
+        return new BookingInterval() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
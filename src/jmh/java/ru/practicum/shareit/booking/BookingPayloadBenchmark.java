@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.BenchmarkData;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes a page of bookings in the old shape, with whole {@link Item} and {@link User} entities,
+ * and in the slim {@link BookingDto} shape built from {@link BookingView} rows.
+ * Run with {@code -prof gc} to compare allocation per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingPayloadBenchmark {
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private final BookingMapper mapper = new BookingMapperImpl();
+    private ObjectMapper objectMapper;
+    private List<Booking> entities;
+    private List<BookingView> views;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        objectMapper = BenchmarkData.objectMapper();
+        entities = new ArrayList<>();
+        views = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            User owner = new User(id, "Owner " + id, "owner" + id + "@example.com");
+            User booker = new User(id + 1000, "Booker " + id, "booker" + id + "@example.com");
+            ItemRequest request = new ItemRequest(id, "Looking for a cordless drill for the weekend",
+                    booker, EPOCH.minusDays(3));
+            Item item = new Item(id, "Cordless drill " + id, "Cordless drill with two batteries and a case",
+                    true, owner, request, 0L);
+            Booking booking = new Booking(id, EPOCH.plusDays(id), EPOCH.plusDays(id + 1), item, owner.getId(),
+                    booker, BookingStatus.APPROVED, BookingPhase.FINISHED, 0L);
+            entities.add(booking);
+            views.add(new BookingView(id, booking.getStart(), booking.getEnd(), booking.getStatus(),
+                    item.getId(), item.getName(), owner.getId(), booker.getId()));
+        }
+        System.out.printf("%nPayload per page of %d: entity shape %d bytes, slim shape %d bytes%n", pageSize,
+                entityShape().length, slimShape().length);
+    }
+
+    @Benchmark
+    public byte[] entityShape() throws JsonProcessingException {
+        List<EntityBookingDto> page = new ArrayList<>(entities.size());
+        for (Booking b : entities) {
+            page.add(new EntityBookingDto(b.getId(), b.getStart(), b.getEnd(), b.getItem(), b.getBooker(),
+                    b.getStatus()));
+        }
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] slimShape() throws JsonProcessingException {
+        List<BookingDto> page = new ArrayList<>(views.size());
+        for (BookingView view : views) {
+            page.add(mapper.toBookingDto(view));
+        }
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    /**
+     * The booking response before it was flattened.
+     */
+    public record EntityBookingDto(Long id, LocalDateTime start, LocalDateTime end, Item item, User booker,
+                                   BookingStatus status) {
+    }
+}
@@ -0,0 +1,161 @@
+package ru.practicum.shareit.booking;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of {@code GET /bookings/owner}: the former item id {@code IN} list, a join filtered
+ * by the item owner, and the {@code item_owner_id} column read by {@link BookingRepository#findPageByOwner}.
+ * Runs on the Flyway schema, indexes included. H2 uses an index for ORDER BY only when the sort columns
+ * lead it, so here every variant still sorts the owner's bookings; PostgreSQL reads the page backwards
+ * from {@code bookings_owner_start_idx}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OwnerBookingsBenchmark {
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final long OWNER_ID = 1;
+    private static final long OTHER_OWNER_ID = 2;
+    private static final int OTHER_OWNER_ITEMS = 10_000;
+    private static final int PAGE_SIZE = 20;
+    private static final String SELECT = "select b.id, b.start_date, b.end_date, b.status, i.id, i.name, " +
+            "i.owner_id, b.booker_id from bookings b join items i on i.id = b.item_id ";
+    private static final String PAGE = "and b.status in (?, ?, ?, ?) " +
+            "and (b.start_date < ? or (b.start_date = ? and b.id < ?)) " +
+            "order by b.start_date desc, b.id desc fetch first " + PAGE_SIZE + " rows only";
+
+    @Param({"10", "1000", "50000"})
+    private int items;
+
+    @Param({"4"})
+    private int bookingsPerItem;
+
+    private Connection connection;
+    private PreparedStatement ownerItems;
+    private PreparedStatement ownerJoinPage;
+    private PreparedStatement ownerColumnPage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        // Without OPTIMIZE_REUSE_RESULTS H2 would hand the prepared query its previous result back.
+        String url = "jdbc:h2:mem:owner-bookings-" + items + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE";
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        connection = DriverManager.getConnection(url, "sa", "");
+        try (Statement users = connection.createStatement()) {
+            users.execute("insert into users (id, name, email) values (1, 'owner', 'owner@mail.ru'), " +
+                    "(2, 'other', 'other@mail.ru'), (3, 'booker', 'booker@mail.ru')");
+        }
+        long bookingId = 1;
+        try (PreparedStatement item = connection.prepareStatement("insert into items (id, name, description, " +
+                "is_available, owner_id) values (?, 'item', 'drill', true, ?)");
+             PreparedStatement booking = connection.prepareStatement("insert into bookings (id, start_date, " +
+                     "end_date, item_id, item_owner_id, booker_id, status) values (?, ?, ?, ?, ?, 3, 'APPROVED')")) {
+            for (long id = 1; id <= items + OTHER_OWNER_ITEMS; id++) {
+                long ownerId = id <= items ? OWNER_ID : OTHER_OWNER_ID;
+                item.setLong(1, id);
+                item.setLong(2, ownerId);
+                item.addBatch();
+                for (int i = 0; i < bookingsPerItem; i++) {
+                    LocalDateTime start = EPOCH.plusHours(bookingId);
+                    booking.setLong(1, bookingId++);
+                    booking.setTimestamp(2, Timestamp.valueOf(start));
+                    booking.setTimestamp(3, Timestamp.valueOf(start.plusHours(20)));
+                    booking.setLong(4, id);
+                    booking.setLong(5, ownerId);
+                    booking.addBatch();
+                }
+                if (id % 1000 == 0) {
+                    item.executeBatch();
+                    booking.executeBatch();
+                }
+            }
+            item.executeBatch();
+            booking.executeBatch();
+        }
+        try (Statement analyze = connection.createStatement()) {
+            analyze.execute("analyze");
+        }
+        ownerItems = connection.prepareStatement("select id, name, description, is_available, owner_id, " +
+                "request_id from items where owner_id = ?");
+        ownerJoinPage = connection.prepareStatement(SELECT + "where i.owner_id = ? " + PAGE);
+        ownerColumnPage = connection.prepareStatement(SELECT + "where b.item_owner_id = ? " + PAGE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement drop = connection.createStatement()) {
+            drop.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    /**
+     * Loads the owner's items, then binds their ids into an {@code IN} list padded to a power of two,
+     * as Hibernate does with {@code in_clause_parameter_padding}.
+     */
+    @Benchmark
+    public void itemIdInList(Blackhole bh) throws SQLException {
+        List<Long> itemIds = new ArrayList<>();
+        ownerItems.setLong(1, OWNER_ID);
+        try (ResultSet rs = ownerItems.executeQuery()) {
+            while (rs.next()) {
+                itemIds.add(rs.getLong(1));
+            }
+        }
+        int padded = Integer.highestOneBit(itemIds.size() - 1) << 1;
+        StringBuilder in = new StringBuilder("where b.item_id in (?");
+        in.append(", ?".repeat(padded - 1)).append(") ");
+        try (PreparedStatement page = connection.prepareStatement(SELECT + in + PAGE)) {
+            for (int i = 0; i < padded; i++) {
+                page.setLong(i + 1, itemIds.get(Math.min(i, itemIds.size() - 1)));
+            }
+            readPage(page, padded + 1, bh);
+        }
+    }
+
+    @Benchmark
+    public void ownerJoin(Blackhole bh) throws SQLException {
+        ownerJoinPage.setLong(1, OWNER_ID);
+        readPage(ownerJoinPage, 2, bh);
+    }
+
+    @Benchmark
+    public void ownerColumn(Blackhole bh) throws SQLException {
+        ownerColumnPage.setLong(1, OWNER_ID);
+        readPage(ownerColumnPage, 2, bh);
+    }
+
+    private static void readPage(PreparedStatement page, int next, Blackhole bh) throws SQLException {
+        for (BookingStatus status : BookingStatus.values()) {
+            page.setString(next++, status.name());
+        }
+        Timestamp cursor = Timestamp.valueOf(LocalDateTime.MAX.withYear(9999));
+        page.setTimestamp(next++, cursor);
+        page.setTimestamp(next++, cursor);
+        page.setLong(next, Long.MAX_VALUE);
+        try (ResultSet rs = page.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getLong(1));
+                bh.consume(rs.getTimestamp(2));
+                bh.consume(rs.getString(6));
+            }
+        }
+    }
+}
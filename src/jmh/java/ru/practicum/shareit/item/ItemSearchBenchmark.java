@@ -0,0 +1,116 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares {@link ItemSearchIndex} with the LIKE scan of {@code ItemRepository.searchAvailableItemsByText}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemSearchBenchmark {
+    private static final String[] WORDS = {
+        "drill", "saw", "hammer", "ladder", "tent", "kayak", "bike", "camera", "tripod", "projector",
+        "mixer", "blender", "grill", "heater", "vacuum", "sander", "router", "jigsaw", "compressor", "generator"
+    };
+    private static final String[] ADJECTIVES = {
+        "cordless", "electric", "manual", "heavy", "compact", "folding", "portable", "professional", "vintage", "new"
+    };
+    private static final String[] QUERIES = {"drill", "ill", "folding tent", "PROJ", "cordless sander", "nothing"};
+    private static final String LIKE_SQL = "select i.id from items i where i.is_available " +
+            "and (upper(i.name) like upper(('%' || ? || '%')) or upper(i.description) like upper(('%' || ? || '%')))";
+
+    @Param({"1000000"})
+    private int items;
+
+    @Param({"20"})
+    private int pageSize;
+
+    private Connection connection;
+    private PreparedStatement likeQuery;
+    private ItemSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:search-" + items + ";DB_CLOSE_DELAY=-1");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("create table items (id bigint primary key, name varchar(50) not null, " +
+                    "description varchar(500) not null, is_available boolean not null)");
+        }
+        index = new ItemSearchIndex(mock(ItemRepository.class));
+        SplittableRandom random = new SplittableRandom(42);
+        try (PreparedStatement insert = connection.prepareStatement("insert into items values (?, ?, ?, ?)")) {
+            for (long id = 1; id <= items; id++) {
+                Item item = Item.builder()
+                        .id(id)
+                        .name(pick(ADJECTIVES, random) + " " + pick(WORDS, random) + " " + id)
+                        .description("A " + pick(ADJECTIVES, random) + " " + pick(WORDS, random) +
+                                " for rent, pairs well with a " + pick(WORDS, random))
+                        .available(random.nextInt(10) != 0)
+                        .build();
+                insert.setLong(1, item.getId());
+                insert.setString(2, item.getName());
+                insert.setString(3, item.getDescription());
+                insert.setBoolean(4, item.isAvailable());
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+                index.indexAfterCommit(item);
+            }
+            insert.executeBatch();
+        }
+        likeQuery = connection.prepareStatement(LIKE_SQL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement drop = connection.createStatement()) {
+            drop.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void invertedIndex(Blackhole bh) {
+        bh.consume(index.search(query(), 0, pageSize));
+    }
+
+    @Benchmark
+    public void likeScan(Blackhole bh) throws SQLException {
+        String query = query();
+        likeQuery.setString(1, query);
+        likeQuery.setString(2, query);
+        int found = 0;
+        try (ResultSet rs = likeQuery.executeQuery()) {
+            while (found < pageSize && rs.next()) {
+                bh.consume(rs.getLong(1));
+                found++;
+            }
+        }
+    }
+
+    private static String query() {
+        return QUERIES[ThreadLocalRandom.current().nextInt(QUERIES.length)];
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+}
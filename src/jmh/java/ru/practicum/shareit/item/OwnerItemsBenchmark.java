@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.BenchmarkData;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * In-memory part of {@code GET /items} for one owner: the old aggregation of entity lists with
+ * {@code toMap}/{@code groupingBy} against {@link ItemServiceImpl#getBookings} over projection rows.
+ * Database time is excluded, both variants start from already fetched rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OwnerItemsBenchmark {
+    @Param({"100", "1000", "10000"})
+    private int items;
+
+    @Param({"4"})
+    private int bookingsPerItem;
+
+    @Param({"5"})
+    private int commentsPerItem;
+
+    private final ItemMapper itemMapper = new ItemMapperImpl();
+    private final CommentMapper commentMapper = new CommentMapperImpl();
+    private List<Item> ownerItems;
+    private List<Booking> lastBookings;
+    private List<Booking> nextBookings;
+    private List<Comment> comments;
+    private ItemServiceImpl itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.Portfolio portfolio = BenchmarkData.portfolio(items, bookingsPerItem, commentsPerItem);
+        ownerItems = portfolio.items();
+        lastBookings = portfolio.lastBookings();
+        nextBookings = portfolio.nextBookings();
+        comments = portfolio.comments();
+
+        ObjectMapper objectMapper = BenchmarkData.objectMapper();
+        List<OwnerItemView> views = portfolio.ownerItemViews(objectMapper);
+        ItemRepository repository = mock(ItemRepository.class);
+        when(repository.findOwnerItemViews(anyLong(), any())).thenReturn(views);
+        itemService = new ItemServiceImpl(repository, null, null, itemMapper, commentMapper, null, null, null, null,
+                null, null, objectMapper, null, null, null, null);
+    }
+
+    @Benchmark
+    public List<ItemDto> entityAggregation() {
+        Map<Long, Booking> last = lastBookings.stream()
+                .collect(Collectors.toMap(b -> b.getItem().getId(), b -> b));
+        Map<Long, Booking> next = nextBookings.stream()
+                .collect(Collectors.toMap(b -> b.getItem().getId(), b -> b));
+        Map<Long, List<CommentDto>> commentsByItemId = comments.stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())));
+        return ownerItems.stream()
+                .map(item -> itemMapper.toItemDto(item, last.get(item.getId()), next.get(item.getId()),
+                        commentsByItemId.getOrDefault(item.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ItemDto> projectionRows() {
+        return itemService.getBookings(1L);
+    }
+}
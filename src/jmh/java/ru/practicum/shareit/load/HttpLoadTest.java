@@ -0,0 +1,164 @@
+package ru.practicum.shareit.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator for a running ShareIt instance. It seeds users, items and bookings
+ * through the API, then keeps {@code clients} concurrent clients issuing a read-mostly mix for the given duration.
+ *
+ * <p>Arguments: {@code baseUrl clients durationSeconds warmupSeconds}, e.g. {@code http://localhost:9090 1000 30 10}.
+ */
+public final class HttpLoadTest {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final int OWNERS = 20;
+    private static final int BOOKERS = 200;
+    private static final int ITEMS_PER_OWNER = 10;
+    private static final int BOOKINGS = 2000;
+
+    private final String baseUrl;
+    private final HttpClient client;
+
+    private HttpLoadTest(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:9090";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int duration = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int warmup = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        HttpLoadTest test = new HttpLoadTest(baseUrl);
+        test.seed();
+        test.run(clients, warmup);
+        Result result = test.run(clients, duration);
+        System.out.printf("clients=%d duration=%ds requests=%d errors=%d throughput=%.0f req/s "
+                        + "p50=%.1fms p99=%.1fms max=%.1fms%n", clients, duration, result.requests(), result.errors(),
+                result.requests() / (double) duration, result.percentile(0.50), result.percentile(0.99),
+                result.percentile(1.0));
+    }
+
+    private void seed() throws Exception {
+        for (int i = 1; i <= OWNERS + BOOKERS; i++) {
+            send("POST", "/users", null, "{\"name\":\"user" + i + "\",\"email\":\"load" + i + "@example.com\"}");
+        }
+        for (int owner = 1; owner <= OWNERS; owner++) {
+            for (int i = 0; i < ITEMS_PER_OWNER; i++) {
+                send("POST", "/items", (long) owner,
+                        "{\"name\":\"cordless drill " + i + "\",\"description\":\"drill\",\"available\":\"true\"}");
+            }
+        }
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        for (int i = 0; i < BOOKINGS; i++) {
+            long item = 1 + i % (OWNERS * ITEMS_PER_OWNER);
+            LocalDateTime start = base.plusHours(i);
+            send("POST", "/bookings", bookerOf(i), "{\"itemId\":" + item + ",\"start\":\"" + start
+                    + "\",\"end\":\"" + start.plusMinutes(30) + "\"}");
+        }
+    }
+
+    private Result run(int clients, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<long[]> latencies = new ArrayList<>();
+        int[] counts = new int[clients];
+        AtomicLong errors = new AtomicLong();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long[] samples = new long[1 << 16];
+                latencies.add(samples);
+                int client = c;
+                executor.submit(() -> {
+                    long[] own = samples;
+                    while (System.nanoTime() < deadline) {
+                        long started = System.nanoTime();
+                        int status = nextRequest();
+                        long elapsed = System.nanoTime() - started;
+                        if (status / 100 != 2) {
+                            errors.incrementAndGet();
+                        }
+                        if (counts[client] == own.length) {
+                            own = Arrays.copyOf(own, own.length * 2);
+                            latencies.set(client, own);
+                        }
+                        own[counts[client]++] = elapsed;
+                    }
+                });
+            }
+        }
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int pos = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies.get(c), 0, all, pos, counts[c]);
+            pos += counts[c];
+        }
+        Arrays.sort(all);
+        return new Result(all, errors.get());
+    }
+
+    private int nextRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long owner = 1 + random.nextInt(OWNERS);
+        long booker = OWNERS + 1 + random.nextInt(BOOKERS);
+        return switch (random.nextInt(5)) {
+            case 0 -> send("GET", "/bookings?size=20", booker, null);
+            case 1 -> send("GET", "/bookings/owner?state=FUTURE&size=20", owner, null);
+            case 2 -> send("GET", "/items", owner, null);
+            case 3 -> {
+                int booking = random.nextInt(BOOKINGS);
+                yield send("GET", "/bookings/" + (booking + 1), bookerOf(booking), null);
+            }
+            default -> send("GET", "/items/" + (1 + random.nextInt(OWNERS * ITEMS_PER_OWNER)), booker, null);
+        };
+    }
+
+    private static long bookerOf(int booking) {
+        return OWNERS + 1 + booking % BOOKERS;
+    }
+
+    private int send(String method, String path, Long userId, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        if (userId != null) {
+            request.header(HEADER_USER_ID, userId.toString());
+        }
+        try {
+            return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private record Result(long[] sortedNanos, long errors) {
+        long requests() {
+            return sortedNanos.length;
+        }
+
+        double percentile(double p) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
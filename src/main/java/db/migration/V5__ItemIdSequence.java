@@ -0,0 +1,29 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Creates the sequence behind {@code Item.id}. PostgreSQL and H2 only take a literal as the start value,
+ * so it is computed here: the pooled optimizer hands out the block ending at the first value, which
+ * therefore has to lie a whole block past the largest existing id.
+ */
+public class V5__ItemIdSequence extends BaseJavaMigration {
+    static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            long maxId;
+            try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM items")) {
+                rs.next();
+                maxId = rs.getLong(1);
+            }
+            statement.execute("CREATE SEQUENCE items_seq START WITH " + (maxId + ALLOCATION_SIZE) +
+                    " INCREMENT BY " + ALLOCATION_SIZE);
+        }
+    }
+}
@@ -31,13 +31,17 @@ public class Booking {
     @Future
     private LocalDateTime end;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     @NotNull
     @JoinColumn(name = "item_id", nullable = false)
     private Item item;
 
-    @ManyToOne
+    // Copy of item.owner.id, items never change their owner. Owner lists are read by this column.
+    @Column(name = "item_owner_id", nullable = false)
+    private Long itemOwnerId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     @NotNull
     @JoinColumn(name = "booker_id", nullable = false)
@@ -46,4 +50,11 @@ public class Booking {
     @Column(length = 20)
     @Enumerated(value = EnumType.STRING)
     private BookingStatus status;
+
+    @Column(length = 8, nullable = false)
+    @Enumerated(value = EnumType.STRING)
+    private BookingPhase phase;
+
+    @Version
+    private Long version;
 }
\ No newline at end of file
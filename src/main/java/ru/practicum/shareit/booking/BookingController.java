@@ -1,15 +1,32 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.*;
+import ru.practicum.shareit.common.ETags;
+import ru.practicum.shareit.common.RateLimited;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Slf4j
 @RestController
@@ -17,9 +34,14 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    // Bookers poll for the owner's decision, so a booking is revalidated on each request.
+    private static final CacheControl BOOKING_CACHE = CacheControl.noCache().cachePrivate();
 
     @PostMapping
+    @RateLimited("booking-create")
     public ResponseEntity<BookingDto> createBooking(@RequestHeader(HEADER_USER_ID) Long userId,
                                     @RequestBody BookingCreateDto bcd) {
         log.info("Create booking for item {} by user {}", bcd.getItemId(), userId);
@@ -35,25 +57,115 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.updateBookingStatus(ownerId, bookingId, approved));
     }
 
+    @PatchMapping
+    public ResponseEntity<List<BookingStatusResult>> updateBookingStatuses(
+            @RequestHeader(HEADER_USER_ID) Long ownerId,
+            @RequestParam boolean approved,
+            @RequestBody List<Long> bookingIds) {
+        log.info("Update {} bookings by owner id {}", bookingIds.size(), ownerId);
+        return ResponseEntity.ok(bookingService.updateBookingStatuses(ownerId, bookingIds, approved));
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<BookingDto> getBookingById(@RequestHeader(HEADER_USER_ID) Long userId,
-                                     @PathVariable Long bookingId) {
+    public ResponseEntity<MappingJacksonValue> getBookingById(@RequestHeader(HEADER_USER_ID) Long userId,
+                                     @PathVariable Long bookingId,
+                                     @RequestParam(required = false) Set<String> fields,
+                                     WebRequest request) {
         log.info("Get booking by booking id {}", bookingId);
-        return ResponseEntity.ok(bookingService.getBookingById(userId, bookingId));
+        // The version is read before the booking, so the booking sent with it is never older than the tag.
+        // Without one the booking is missing or not the user's, and reading it answers why.
+        String version = bookingService.getBookingVersion(userId, bookingId);
+        String eTag = version == null ? null : ETags.of(version);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(BOOKING_CACHE)
+                    .varyBy(HEADER_USER_ID)
+                    .build();
+        }
+        BookingDto booking = bookingService.getBookingById(userId, bookingId);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(BOOKING_CACHE)
+                .varyBy(HEADER_USER_ID)
+                .body(selectFields(booking, fields));
     }
 
 
     @GetMapping
-    public ResponseEntity<List<BookingDto>> getBookingsByState(@RequestHeader(HEADER_USER_ID) Long userId,
-                                               @RequestParam(defaultValue = "ALL") BookingState state) {
+    public ResponseEntity<MappingJacksonValue> getBookingsByState(@RequestHeader(HEADER_USER_ID) Long userId,
+                                               @RequestParam(defaultValue = "ALL") BookingState state,
+                                               @RequestParam(defaultValue = "0") int from,
+                                               @RequestParam(required = false) Integer size,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Set<String> fields) {
         log.info("Get booking of user id {} by state {}", userId, state.name());
-        return ResponseEntity.ok(bookingService.getBookingsByState(userId, state));
+        return toResponse(bookingService.getBookingsByState(userId, state, from, size, cursor), fields);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBookingsByState(@RequestHeader(HEADER_USER_ID) Long userId,
+                                               @RequestParam(defaultValue = "ALL") BookingState state,
+                                               @RequestParam(required = false) Set<String> fields) {
+        log.info("Stream booking of user id {} by state {}", userId, state.name());
+        return toNdjson(out -> bookingService.streamBookingsByState(userId, state, writeLine(out, fields)));
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<List<BookingDto>> getBookingsForOwner(@RequestHeader(HEADER_USER_ID) Long ownerId,
-                                                @RequestParam(defaultValue = "ALL") BookingState state) {
+    public ResponseEntity<MappingJacksonValue> getBookingsForOwner(@RequestHeader(HEADER_USER_ID) Long ownerId,
+                                                @RequestParam(defaultValue = "ALL") BookingState state,
+                                                @RequestParam(defaultValue = "0") int from,
+                                                @RequestParam(required = false) Integer size,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Set<String> fields) {
         log.info("Get booking for item owner id {} with status {}", ownerId, state.name());
-        return ResponseEntity.ok(bookingService.getBookingsForOwner(ownerId, state));
+        return toResponse(bookingService.getBookingsForOwner(ownerId, state, from, size, cursor), fields);
+    }
+
+    @GetMapping(path = "/owner", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBookingsForOwner(@RequestHeader(HEADER_USER_ID) Long ownerId,
+                                                @RequestParam(defaultValue = "ALL") BookingState state,
+                                                @RequestParam(required = false) Set<String> fields) {
+        log.info("Stream booking for item owner id {} with status {}", ownerId, state.name());
+        return toNdjson(out -> bookingService.streamBookingsForOwner(ownerId, state, writeLine(out, fields)));
+    }
+
+    private ResponseEntity<MappingJacksonValue> toResponse(BookingPage page, Set<String> fields) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(HEADER_NEXT_CURSOR, page.getNextCursor());
+        }
+        return response.body(selectFields(page.getBookings(), fields));
+    }
+
+    private MappingJacksonValue selectFields(Object body, Set<String> fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(toFilters(fields));
+        return value;
+    }
+
+    private FilterProvider toFilters(Set<String> fields) {
+        SimpleBeanPropertyFilter filter = fields == null || fields.isEmpty()
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(fields);
+        return new SimpleFilterProvider().addFilter(BookingDto.FIELDS_FILTER, filter);
+    }
+
+    private ResponseEntity<StreamingResponseBody> toNdjson(StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private Consumer<BookingDto> writeLine(OutputStream out, Set<String> fields) {
+        ObjectWriter writer = objectMapper.writer(toFilters(fields));
+        return booking -> {
+            try {
+                out.write(writer.writeValueAsBytes(booking));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
     }
 }
\ No newline at end of file
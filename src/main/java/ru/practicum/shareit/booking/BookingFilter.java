@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Statuses and phases of a {@link BookingState}. Every state binds the same parameters,
+ * so all states share one query shape and one cached plan.
+ */
+public record BookingFilter(Set<BookingStatus> statuses, Set<BookingPhase> phases) {
+    static final LocalDateTime MAX = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    public static BookingFilter of(BookingState state) {
+        Set<BookingStatus> all = EnumSet.allOf(BookingStatus.class);
+        Set<BookingPhase> always = EnumSet.allOf(BookingPhase.class);
+        return switch (state) {
+            case CURRENT -> new BookingFilter(all, EnumSet.of(BookingPhase.ACTIVE));
+            case PAST -> new BookingFilter(all, EnumSet.of(BookingPhase.FINISHED));
+            case FUTURE -> new BookingFilter(all, EnumSet.of(BookingPhase.UPCOMING));
+            case WAITING -> new BookingFilter(EnumSet.of(BookingStatus.WAITING), always);
+            case REJECTED -> new BookingFilter(EnumSet.of(BookingStatus.REJECTED), always);
+            case ALL -> new BookingFilter(all, always);
+        };
+    }
+}
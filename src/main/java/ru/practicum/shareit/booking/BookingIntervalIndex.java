@@ -0,0 +1,157 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.AfterCommit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of APPROVED booking intervals per item.
+ * Items are warmed lazily from {@link BookingRepository} on first access.
+ * A positive overlap answer is final, a negative one must be confirmed by the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemIntervals> intervalsByItemId = new ConcurrentHashMap<>();
+
+    public boolean hasOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return getOrLoad(itemId).busy.overlaps(start, end);
+    }
+
+    /**
+     * Busy time of the item within {@code [from, to)}: approved bookings merged where they overlap or touch,
+     * clipped to the range and ordered by start.
+     */
+    public List<Busy> findBusy(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return getOrLoad(itemId).busy.between(from, to);
+    }
+
+    public void addAfterCommit(Long itemId, LocalDateTime start, LocalDateTime end) {
+        AfterCommit.run(() -> {
+            ItemIntervals intervals = intervalsByItemId.get(itemId);
+            if (intervals != null) {
+                intervals.add(start, end);
+            }
+        });
+    }
+
+    public void evictItemAfterCommit(Long itemId) {
+        AfterCommit.run(() -> intervalsByItemId.remove(itemId));
+    }
+
+    public void clearAfterCommit() {
+        AfterCommit.run(intervalsByItemId::clear);
+    }
+
+    private ItemIntervals getOrLoad(Long itemId) {
+        ItemIntervals intervals = intervalsByItemId.get(itemId);
+        if (intervals != null) {
+            return intervals;
+        }
+        List<BookingInterval> approved = bookingRepository.findIntervalsByItemIdAndStatus(itemId,
+                BookingStatus.APPROVED);
+        ItemIntervals loaded = new ItemIntervals(Intervals.of(approved));
+        ItemIntervals existing = intervalsByItemId.putIfAbsent(itemId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    public record Busy(LocalDateTime start, LocalDateTime end) {
+    }
+
+    private static final class ItemIntervals {
+        // Replaced as a whole on every approval, so readers need no lock.
+        private volatile Intervals busy;
+
+        ItemIntervals(Intervals busy) {
+            this.busy = busy;
+        }
+
+        synchronized void add(LocalDateTime start, LocalDateTime end) {
+            busy = busy.with(start, end);
+        }
+    }
+
+    /**
+     * Disjoint intervals sorted by start, kept as two parallel arrays. Since they do not overlap,
+     * the ends are sorted as well, so every lookup is a binary search whatever the length of the bookings.
+     */
+    private record Intervals(LocalDateTime[] starts, LocalDateTime[] ends) {
+        static Intervals of(List<BookingInterval> bookings) {
+            List<BookingInterval> sorted = new ArrayList<>(bookings);
+            sorted.sort(Comparator.comparing(BookingInterval::getStart));
+            List<LocalDateTime> starts = new ArrayList<>();
+            List<LocalDateTime> ends = new ArrayList<>();
+            for (BookingInterval booking : sorted) {
+                int last = ends.size() - 1;
+                if (last >= 0 && !booking.getStart().isAfter(ends.get(last))) {
+                    if (booking.getEnd().isAfter(ends.get(last))) {
+                        ends.set(last, booking.getEnd());
+                    }
+                } else {
+                    starts.add(booking.getStart());
+                    ends.add(booking.getEnd());
+                }
+            }
+            return new Intervals(starts.toArray(LocalDateTime[]::new), ends.toArray(LocalDateTime[]::new));
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            int i = firstEndingAfter(start);
+            return i < starts.length && starts[i].isBefore(end);
+        }
+
+        List<Busy> between(LocalDateTime from, LocalDateTime to) {
+            List<Busy> busy = new ArrayList<>();
+            for (int i = firstEndingAfter(from); i < starts.length && starts[i].isBefore(to); i++) {
+                busy.add(new Busy(later(starts[i], from), ends[i].isBefore(to) ? ends[i] : to));
+            }
+            return busy;
+        }
+
+        /**
+         * Merges {@code [start, end)} with every interval it overlaps or touches.
+         */
+        Intervals with(LocalDateTime start, LocalDateTime end) {
+            int first = firstEndingAfter(start);
+            if (first > 0 && ends[first - 1].equals(start)) {
+                first--;
+            }
+            int last = first;
+            while (last < starts.length && !starts[last].isAfter(end)) {
+                last++;
+            }
+            // Intervals first..last-1 are replaced by one.
+            LocalDateTime mergedStart = first < last && starts[first].isBefore(start) ? starts[first] : start;
+            LocalDateTime mergedEnd = first < last ? later(ends[last - 1], end) : end;
+            int length = starts.length - (last - first) + 1;
+            LocalDateTime[] newStarts = new LocalDateTime[length];
+            LocalDateTime[] newEnds = new LocalDateTime[length];
+            System.arraycopy(starts, 0, newStarts, 0, first);
+            System.arraycopy(ends, 0, newEnds, 0, first);
+            newStarts[first] = mergedStart;
+            newEnds[first] = mergedEnd;
+            System.arraycopy(starts, last, newStarts, first + 1, starts.length - last);
+            System.arraycopy(ends, last, newEnds, first + 1, ends.length - last);
+            return new Intervals(newStarts, newEnds);
+        }
+
+        private int firstEndingAfter(LocalDateTime time) {
+            int pos = Arrays.binarySearch(ends, time);
+            // On an exact match the interval ends at "time", so the next one is the first ending after it.
+            return pos >= 0 ? pos + 1 : -pos - 1;
+        }
+
+        private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+            return a.isAfter(b) ? a : b;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.ToIntFunction;
+
+/**
+ * Advances the {@link BookingPhase} of bookings whose start or end date has passed, in set-based updates of up to
+ * {@code batch-size} rows, each in its own transaction. UPCOMING bookings are started before ACTIVE ones are
+ * finished, so a booking that began and ended between two runs is finished in one. Bookings still WAITING when
+ * they start are EXPIRED, the owner can no longer approve them.
+ */
+@Slf4j
+@Component
+public class BookingLifecycle {
+    private final BookingRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter started;
+    private final Counter finished;
+
+    public BookingLifecycle(BookingRepository repository, TransactionTemplate transactionTemplate,
+                            MeterRegistry registry,
+                            @Value("${shareit.booking.lifecycle.batch-size:1000}") int batchSize,
+                            @Value("${shareit.booking.lifecycle.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.started = transitions(registry, BookingPhase.ACTIVE);
+        this.finished = transitions(registry, BookingPhase.FINISHED);
+    }
+
+    /**
+     * Returns the number of bookings moved to another phase. Runs on one instance or several alike,
+     * a row moved by another run no longer matches the phase it is updated from.
+     */
+    public int advance() {
+        LocalDateTime now = LocalDateTime.now();
+        int moved = advance(limit -> repository.startBookings(now, limit), started)
+                + advance(limit -> repository.finishBookings(now, limit), finished);
+        if (moved > 0) {
+            log.debug("Advanced the phase of {} bookings", moved);
+        }
+        return moved;
+    }
+
+    private int advance(ToIntFunction<Integer> update, Counter counter) {
+        int moved = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int updated = transactionTemplate.execute(tx -> update.applyAsInt(batchSize));
+            counter.increment(updated);
+            moved += updated;
+            if (updated < batchSize) {
+                break;
+            }
+        }
+        return moved;
+    }
+
+    private static Counter transitions(MeterRegistry registry, BookingPhase phase) {
+        return Counter.builder("shareit.bookings.transitions")
+                .description("Bookings moved to another phase")
+                .tag("phase", phase.name())
+                .register(registry);
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "shareit.booking.lifecycle.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class BookingLifecycleJob {
+    private final BookingLifecycle bookingLifecycle;
+
+    @Scheduled(fixedDelayString = "${shareit.booking.lifecycle.interval-ms:1000}")
+    public void advance() {
+        bookingLifecycle.advance();
+    }
+}
@@ -11,9 +11,20 @@ import ru.practicum.shareit.user.User;
 public interface BookingMapper {
     BookingDto toBookingDto(Booking booking);
 
+    @Mapping(target = "item", expression = "java(new BookingDto.ItemSummary(view.itemId(), view.itemName()))")
+    @Mapping(target = "booker", expression = "java(new BookingDto.BookerSummary(view.bookerId()))")
+    BookingDto toBookingDto(BookingView view);
+
+    BookingDto.ItemSummary toItemSummary(Item item);
+
+    BookingDto.BookerSummary toBookerSummary(User user);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "booker", source = "user")
     @Mapping(target = "item", source = "item")
+    @Mapping(target = "itemOwnerId", source = "item.owner.id")
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "status", expression = "java(BookingStatus.WAITING)")
+    @Mapping(target = "phase", expression = "java(BookingPhase.UPCOMING)")
     Booking toBooking(BookingCreateDto bcd, Item item, User user);
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking;
+
+/**
+ * Where a booking is in time, persisted so state lists filter by equality instead of comparing dates.
+ * Advanced by {@link BookingLifecycle} as start and end dates pass, so it lags the clock by up to one run.
+ */
+public enum BookingPhase {
+    UPCOMING,
+    ACTIVE,
+    FINISHED
+}
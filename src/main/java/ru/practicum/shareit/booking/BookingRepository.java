@@ -1,55 +1,127 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status);
-
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long bookerId);
-
-    @Query("select b from Booking b where b.booker.id = :bookerId " +
-            "and b.start < :now and b.end > :now order by b.start desc")
-    List<Booking> findCurrentBookingsByBooker(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
-
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime now);
-
-    List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime now);
-
-    List<Booking> findAllByItemIdInAndStatusOrderByStartDesc(List<Long> itemIds, BookingStatus status);
-
-    List<Booking> findAllByItemIdInOrderByStartDesc(List<Long> itemIds);
-
-    @Query("select b from Booking b where b.item.id in :itemIds " +
-            "and b.start <= :now and b.end >= :now order by b.start DESC")
-    List<Booking> findCurrentBookingsByOwner(@Param("itemIds") List<Long> itemIds, @Param("now") LocalDateTime now);
-
-    List<Booking> findAllByItemIdInAndEndBeforeOrderByStartDesc(List<Long> itemIds, LocalDateTime now);
-
-    List<Booking> findAllByItemIdInAndStartAfterOrderByStartDesc(List<Long> itemIds, LocalDateTime now);
-
-    @Query("select b from Booking b where b.booker.id = :bookerId " +
-            "and b.status = :status order by b.start desc ")
-    List<Booking> findBookingsByBookerAndStatus(@Param("bookerId") Long bookerId, @Param("status") BookingStatus status);
-
-    @Query("select b from Booking b where b.item.owner.id = :ownerId " +
-            "and b.end < :now order by b.end desc ")
-    List<Booking> findLastBookingsByOwner(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
-
-    @Query("select b from Booking b where b.item.owner.id = :ownerId " +
-            "and b.start > :now order by b.start asc ")
-    List<Booking> findNextBookingsByOwner(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+    String STATE_FILTER = "and b.status in :statuses and b.phase in :phases ";
+
+    String VIEW = "select new ru.practicum.shareit.booking.BookingView(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.owner.id, b.booker.id) from Booking b join b.item i ";
+
+    String AFTER_CURSOR = "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc";
+
+    @EntityGraph(attributePaths = "item")
+    Optional<Booking> findById(Long id);
+
+    @Query(VIEW + "where b.id = :id")
+    Optional<BookingView> findViewById(@Param("id") Long id);
+
+    /**
+     * Everything {@link #findViewById} depends on in one primary key read of each table: the version of the
+     * booking and of its item. Null when the booking is missing or belongs neither to the booker nor the owner.
+     */
+    @Query(value = "select concat_ws(':', b.version, i.version) from bookings b join items i on i.id = b.item_id " +
+            "where b.id = :id and (b.booker_id = :userId or b.item_owner_id = :userId)", nativeQuery = true)
+    String findViewVersion(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("select b from Booking b join fetch b.item where b.id in :ids")
+    List<Booking> findAllWithItemByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(VIEW + "where i.id in :itemIds and b.status = :status and b.end > :endAfter")
+    List<BookingView> findViewsByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                         @Param("status") BookingStatus status,
+                                         @Param("endAfter") LocalDateTime endAfter);
+
+    @Query(VIEW + "where b.booker.id = :bookerId " + STATE_FILTER + AFTER_CURSOR)
+    List<BookingView> findPageByBooker(@Param("bookerId") Long bookerId,
+                                   @Param("statuses") Collection<BookingStatus> statuses,
+                                   @Param("phases") Collection<BookingPhase> phases,
+                                   @Param("cursorStart") LocalDateTime cursorStart,
+                                   @Param("cursorId") Long cursorId,
+                                   Pageable pageable);
+
+    @Query(VIEW + "where b.itemOwnerId = :ownerId " + STATE_FILTER + AFTER_CURSOR)
+    List<BookingView> findPageByOwner(@Param("ownerId") Long ownerId,
+                                  @Param("statuses") Collection<BookingStatus> statuses,
+                                  @Param("phases") Collection<BookingPhase> phases,
+                                  @Param("cursorStart") LocalDateTime cursorStart,
+                                  @Param("cursorId") Long cursorId,
+                                  Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(VIEW + "where b.booker.id = :bookerId " + STATE_FILTER +
+            "order by b.start desc, b.id desc")
+    Stream<BookingView> streamByBooker(@Param("bookerId") Long bookerId,
+                                   @Param("statuses") Collection<BookingStatus> statuses,
+                                   @Param("phases") Collection<BookingPhase> phases);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(VIEW + "where b.itemOwnerId = :ownerId " + STATE_FILTER +
+            "order by b.start desc, b.id desc")
+    Stream<BookingView> streamByOwner(@Param("ownerId") Long ownerId,
+                                  @Param("statuses") Collection<BookingStatus> statuses,
+                                  @Param("phases") Collection<BookingPhase> phases);
+
+    /**
+     * Approves a WAITING booking of the given version that starts after {@code now} unless an approved booking
+     * of the same item overlaps it. Returns the number of approved bookings, 0 or 1.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.bookings"))
+    @Query(value = "update bookings b set status = 'APPROVED', version = b.version + 1 " +
+            "where b.id = :id and b.version = :version and b.status = 'WAITING' and b.start_date > :now " +
+            "and not exists (select 1 from bookings o where o.item_id = b.item_id and o.status = 'APPROVED' " +
+            "and o.end_date > b.start_date and o.start_date < b.end_date)", nativeQuery = true)
+    int approveIfNoOverlap(@Param("id") Long id, @Param("version") Long version, @Param("now") LocalDateTime now);
+
+    /**
+     * Moves up to {@code limit} UPCOMING bookings that started by {@code now} to ACTIVE,
+     * expiring those still WAITING. Returns the number of moved bookings.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.bookings"))
+    @Query(value = "update bookings set phase = 'ACTIVE', version = version + 1, " +
+            "status = case when status = 'WAITING' then 'EXPIRED' else status end " +
+            "where phase = 'UPCOMING' and id in (select s.id from bookings s " +
+            "where s.phase = 'UPCOMING' and s.start_date <= :now limit :limit)", nativeQuery = true)
+    int startBookings(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Moves up to {@code limit} ACTIVE bookings that ended by {@code now} to FINISHED.
+     * Returns the number of moved bookings.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.bookings"))
+    @Query(value = "update bookings set phase = 'FINISHED', version = version + 1 " +
+            "where phase = 'ACTIVE' and id in (select e.id from bookings e " +
+            "where e.phase = 'ACTIVE' and e.end_date <= :now limit :limit)", nativeQuery = true)
+    int finishBookings(@Param("now") LocalDateTime now, @Param("limit") int limit);
 
     @Query("select b from Booking b where b.item.id = :itemId " +
             "and b.booker.id = :bookerId and b.status= :status and b.end<:end ")
     List<Booking> findByItemIdAndBookerIdAndStatusAndEndIsBefore(Long itemId, Long bookerId, BookingStatus status,
                                                                  LocalDateTime end);
 
+    @Query("select b.id as id, b.start as start, b.end as end from Booking b " +
+            "where b.item.id = :itemId and b.status = :status")
+    List<BookingInterval> findIntervalsByItemIdAndStatus(@Param("itemId") Long itemId,
+                                                         @Param("status") BookingStatus status);
+
     boolean existsByItemIdAndStatusAndEndAfterAndStartBefore(Long itemId, BookingStatus status, LocalDateTime start,
                                                              LocalDateTime end);
 }
\ No newline at end of file
@@ -2,17 +2,31 @@ package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.dto.BookingStatusResult;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDto createBooking(Long userId, BookingCreateDto bco);
 
     BookingDto updateBookingStatus(Long ownerId, Long bookingId, boolean approved);
 
+    List<BookingStatusResult> updateBookingStatuses(Long ownerId, List<Long> bookingIds, boolean approved);
+
     BookingDto getBookingById(Long userId, Long bookingId);
 
-    List<BookingDto> getBookingsByState(Long userId, BookingState state);
+    /**
+     * Changes whenever {@link #getBookingById} would answer differently; null when it would refuse.
+     */
+    String getBookingVersion(Long userId, Long bookingId);
+
+    BookingPage getBookingsByState(Long userId, BookingState state, int from, Integer size, String cursor);
+
+    BookingPage getBookingsForOwner(Long ownerId, BookingState state, int from, Integer size, String cursor);
+
+    void streamBookingsByState(Long userId, BookingState state, Consumer<BookingDto> consumer);
 
-    List<BookingDto> getBookingsForOwner(Long ownerId, BookingState state);
+    void streamBookingsForOwner(Long ownerId, BookingState state, Consumer<BookingDto> consumer);
 }
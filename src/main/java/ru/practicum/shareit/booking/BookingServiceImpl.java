@@ -1,28 +1,59 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.MeterTag;
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.dto.BookingStatusResult;
+import ru.practicum.shareit.common.OffsetPageRequest;
+import ru.practicum.shareit.event.BookingApproved;
+import ru.practicum.shareit.event.BookingCreated;
+import ru.practicum.shareit.event.OutboxPublisher;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed("shareit.service")
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_STATUS_UPDATE_ATTEMPTS = 5;
+    private static final int MAX_BULK_STATUS_UPDATE = 10_000;
+    // Bounds IN lists, padded by Hibernate to the next power of two.
+    private static final int IN_CHUNK_SIZE = 1000;
+
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final BookingMapper bookingMapper;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     @Transactional
@@ -44,25 +75,47 @@ public class BookingServiceImpl implements BookingService {
             throw new NotFoundException("Booking end date can not be before start date");
         }
 
-        boolean hasOverlap = bookingRepository.existsByItemIdAndStatusAndEndAfterAndStartBefore(
-                item.getId(),
-                BookingStatus.APPROVED,
-                booking.getStart(),
-                booking.getEnd()
-        );
+        boolean hasOverlap = bookingIntervalIndex.hasOverlap(item.getId(), booking.getStart(), booking.getEnd())
+                || bookingRepository.existsByItemIdAndStatusAndEndAfterAndStartBefore(
+                        item.getId(),
+                        BookingStatus.APPROVED,
+                        booking.getStart(),
+                        booking.getEnd()
+                );
 
         if (hasOverlap) {
             throw new NotFoundException("Overlapping");
         }
 
         Booking savedBooking = bookingRepository.save(booking);
+        outboxPublisher.publish(new BookingCreated(savedBooking.getId(), item.getId(), userId,
+                savedBooking.getStart(), savedBooking.getEnd()));
 
         return bookingMapper.toBookingDto(savedBooking);
     }
 
+    /**
+     * Each attempt runs in its own transaction, so an attempt that lost a race is repeated on fresh state.
+     */
     @Override
-    @Transactional
     public BookingDto updateBookingStatus(Long ownerId, Long bookingId, boolean approved) {
+        return inTransactionWithRetry(tx -> applyBookingStatus(ownerId, bookingId, approved));
+    }
+
+    /**
+     * Updates all bookings in one transaction. Bookings that cannot be updated are reported
+     * in the result and do not fail the others.
+     */
+    @Override
+    public List<BookingStatusResult> updateBookingStatuses(Long ownerId, List<Long> bookingIds, boolean approved) {
+        List<Long> ids = bookingIds.stream().distinct().toList();
+        if (ids.size() > MAX_BULK_STATUS_UPDATE) {
+            throw new ValidationException("At most " + MAX_BULK_STATUS_UPDATE + " bookings can be updated at once");
+        }
+        return inTransactionWithRetry(tx -> applyBookingStatuses(ownerId, ids, approved));
+    }
+
+    private BookingDto applyBookingStatus(Long ownerId, Long bookingId, boolean approved) {
         Booking booking = findBookingById(bookingId);
 
         if (!booking.getItem().getOwner().getId().equals(ownerId)) {
@@ -73,91 +126,253 @@ public class BookingServiceImpl implements BookingService {
             throw new NotFoundException("Booking state must be WAITING");
         }
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        // As in applyBookingStatuses, and BookingLifecycle expires it at its next run.
+        LocalDateTime now = LocalDateTime.now();
+        if (!booking.getStart().isAfter(now)) {
+            throw new NotFoundException("Booking has already started");
+        }
+
+        if (!approved) {
+            // Flushed with a version check, a concurrent approval makes it fail and retry.
+            booking.setStatus(BookingStatus.REJECTED);
+            return bookingMapper.toBookingDto(booking);
+        }
+
+        Long itemId = booking.getItem().getId();
+        if (bookingIntervalIndex.hasOverlap(itemId, booking.getStart(), booking.getEnd())) {
+            throw new NotFoundException("Overlapping");
+        }
+        // The version is read before the overlap check: an approval of the same item committed after
+        // this read is either visible to the check or makes advancing the version fail.
+        long itemBookingVersion = itemRepository.findBookingVersion(itemId);
+        if (bookingRepository.approveIfNoOverlap(bookingId, booking.getVersion(), now) == 0) {
+            if (findBookingById(bookingId).getStatus() != BookingStatus.WAITING) {
+                throw new NotFoundException("Booking state must be WAITING");
+            }
+            if (bookingRepository.existsByItemIdAndStatusAndEndAfterAndStartBefore(itemId, BookingStatus.APPROVED,
+                    booking.getStart(), booking.getEnd())) {
+                throw new NotFoundException("Overlapping");
+            }
+            throw new OptimisticLockingFailureException("Booking " + bookingId + " changed concurrently");
+        }
+        if (itemRepository.advanceBookingVersion(itemId, itemBookingVersion) == 0) {
+            throw new OptimisticLockingFailureException("Bookings of item " + itemId + " changed concurrently");
+        }
+
+        outboxPublisher.publish(approvedEvent(booking));
+        // The booking was detached by the update, so this only affects the response.
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingIntervalIndex.addAfterCommit(itemId, booking.getStart(), booking.getEnd());
         return bookingMapper.toBookingDto(booking);
     }
 
+    private List<BookingStatusResult> applyBookingStatuses(Long ownerId, List<Long> ids, boolean approved) {
+        Map<Long, Booking> bookings = new HashMap<>();
+        for (List<Long> chunk : chunks(ids)) {
+            bookingRepository.findAllWithItemByIdIn(chunk).forEach(b -> bookings.put(b.getId(), b));
+        }
+
+        Map<Long, BookingStatusResult> failures = new HashMap<>();
+        List<Booking> candidates = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Long id : ids) {
+            Booking booking = bookings.get(id);
+            String error = booking == null ? "Booking not found"
+                    : !booking.getItem().getOwner().getId().equals(ownerId)
+                    ? "Only item owner can approve or reject booking"
+                    : booking.getStatus() != BookingStatus.WAITING ? "Booking state must be WAITING"
+                    // Bean validation of the flushed entity requires a future start.
+                    : !booking.getStart().isAfter(now) ? "Booking has already started"
+                    : null;
+            if (error != null) {
+                failures.put(id, BookingStatusResult.failed(id, error));
+            } else {
+                candidates.add(booking);
+            }
+        }
+
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (approved && !candidates.isEmpty()) {
+            candidates = approveWithoutOverlaps(candidates, failures);
+        } else {
+            // Flushed as one JDBC batch with version checks.
+            candidates.forEach(booking -> booking.setStatus(status));
+        }
+
+        return ids.stream()
+                .map(id -> failures.getOrDefault(id, BookingStatusResult.updated(id, status)))
+                .toList();
+    }
+
+    /**
+     * Approves the candidates that overlap neither an approved booking nor an earlier candidate of the same item.
+     * Approved bookings of all items are read at once, the item booking versions are advanced
+     * and compared at once afterwards, as in {@link #applyBookingStatus}.
+     */
+    private List<Booking> approveWithoutOverlaps(List<Booking> candidates, Map<Long, BookingStatusResult> failures) {
+        List<Long> itemIds = candidates.stream().map(b -> b.getItem().getId()).distinct().toList();
+        Map<Long, Long> versions = findBookingVersions(itemIds);
+        LocalDateTime endAfter = candidates.stream().map(Booking::getStart).min(LocalDateTime::compareTo).orElseThrow();
+
+        Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> approvedByItem = new HashMap<>();
+        for (List<Long> chunk : chunks(itemIds)) {
+            for (BookingView view : bookingRepository.findViewsByItemIds(chunk, BookingStatus.APPROVED, endAfter)) {
+                approvedByItem.computeIfAbsent(view.itemId(), id -> new TreeMap<>())
+                        .merge(view.start(), view.end(), BookingServiceImpl::later);
+            }
+        }
+
+        List<Booking> approved = new ArrayList<>();
+        candidates.sort(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId));
+        for (Booking booking : candidates) {
+            NavigableMap<LocalDateTime, LocalDateTime> taken =
+                    approvedByItem.computeIfAbsent(booking.getItem().getId(), id -> new TreeMap<>());
+            // Taken intervals do not overlap, so only the last one starting before the end can reach the start.
+            Map.Entry<LocalDateTime, LocalDateTime> before = taken.lowerEntry(booking.getEnd());
+            if (before != null && before.getValue().isAfter(booking.getStart())) {
+                failures.put(booking.getId(), BookingStatusResult.failed(booking.getId(), "Overlapping"));
+                continue;
+            }
+            taken.merge(booking.getStart(), booking.getEnd(), BookingServiceImpl::later);
+            booking.setStatus(BookingStatus.APPROVED);
+            approved.add(booking);
+        }
+
+        for (List<Long> chunk : chunks(itemIds)) {
+            itemRepository.advanceBookingVersions(chunk);
+        }
+        findBookingVersions(itemIds).forEach((itemId, version) -> {
+            if (version != versions.get(itemId) + 1) {
+                throw new OptimisticLockingFailureException("Bookings of item " + itemId + " changed concurrently");
+            }
+        });
+        outboxPublisher.publishAll(approved.stream().map(BookingServiceImpl::approvedEvent).toList());
+        approved.forEach(b -> bookingIntervalIndex.addAfterCommit(b.getItem().getId(), b.getStart(), b.getEnd()));
+        return approved;
+    }
+
+    private Map<Long, Long> findBookingVersions(List<Long> itemIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (List<Long> chunk : chunks(itemIds)) {
+            itemRepository.findBookingVersions(chunk)
+                    .forEach(v -> versions.put(v.getId(), v.getBookingVersion()));
+        }
+        return versions;
+    }
+
+    private <T> T inTransactionWithRetry(TransactionCallback<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(action);
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == MAX_STATUS_UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static <T> List<List<T>> chunks(List<T> list) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += IN_CHUNK_SIZE) {
+            chunks.add(list.subList(from, Math.min(from + IN_CHUNK_SIZE, list.size())));
+        }
+        return chunks;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public BookingDto getBookingById(Long userId, Long bookingId) {
-        Booking booking = findBookingById(bookingId);
+        BookingView booking = bookingRepository.findViewById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Booking not found"));
         validateBookingAccess(userId, booking);
         return bookingMapper.toBookingDto(booking);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingDto> getBookingsByState(Long userId, BookingState state) {
-        User user = findUserById(userId);
-        return findBookings(userId, state).stream()
-                .map(bookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+    public String getBookingVersion(Long userId, Long bookingId) {
+        return bookingRepository.findViewVersion(bookingId, userId);
     }
 
     @Override
+    @Timed("shareit.service.bookings")
     @Transactional(readOnly = true)
-    public List<BookingDto> getBookingsForOwner(Long ownerId, BookingState state) {
-        findUserById(ownerId);
-        List<Long> itemIds = itemRepository.findAllByOwnerId(ownerId).stream()
-                .map(Item::getId)
-                .toList();
-        if (itemIds.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        return findBookingsForOwner(itemIds, state).stream()
-                .map(bookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+    public BookingPage getBookingsByState(Long userId, @MeterTag(key = "state") BookingState state,
+                                          int from, Integer size, String cursor) {
+        findUserById(userId);
+        BookingFilter filter = BookingFilter.of(state);
+        BookingCursor after = cursor == null ? BookingCursor.FIRST : BookingCursor.decode(cursor);
+        List<BookingView> bookings = bookingRepository.findPageByBooker(userId, filter.statuses(), filter.phases(),
+                after.start(), after.id(), toPageable(from, size, cursor));
+        return toBookingPage(bookings, size);
     }
 
+    @Override
+    @Timed("shareit.service.bookings")
     @Transactional(readOnly = true)
-    private List<Booking> findBookings(Long userId, BookingState state) {
-        LocalDateTime now = LocalDateTime.now();
+    public BookingPage getBookingsForOwner(Long ownerId, @MeterTag(key = "state") BookingState state,
+                                           int from, Integer size, String cursor) {
+        findUserById(ownerId);
+        BookingFilter filter = BookingFilter.of(state);
+        BookingCursor after = cursor == null ? BookingCursor.FIRST : BookingCursor.decode(cursor);
+        List<BookingView> bookings = bookingRepository.findPageByOwner(ownerId, filter.statuses(), filter.phases(),
+                after.start(), after.id(), toPageable(from, size, cursor));
+        return toBookingPage(bookings, size);
+    }
 
-        switch (state) {
-            case CURRENT:
-                return bookingRepository.findCurrentBookingsByBooker(userId, now);
-            case PAST:
-                return bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, now);
-            case FUTURE:
-                return bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, now);
-            case WAITING:
-                return bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING);
-            case REJECTED:
-                return bookingRepository.findBookingsByBookerAndStatus(userId, BookingStatus.REJECTED);
-            case ALL:
-                return bookingRepository.findAllByBookerIdOrderByStartDesc(userId);
-            default:
-                throw new IllegalArgumentException("Item has unknown state");
+    @Override
+    @Timed("shareit.service.bookings")
+    @Transactional(readOnly = true)
+    public void streamBookingsByState(Long userId, @MeterTag(key = "state") BookingState state,
+                                      Consumer<BookingDto> consumer) {
+        findUserById(userId);
+        BookingFilter filter = BookingFilter.of(state);
+        try (Stream<BookingView> bookings = bookingRepository.streamByBooker(userId, filter.statuses(),
+                filter.phases())) {
+            bookings.map(bookingMapper::toBookingDto).forEach(consumer);
         }
     }
 
+    @Override
+    @Timed("shareit.service.bookings")
     @Transactional(readOnly = true)
-    private List<Booking> findBookingsForOwner(List<Long> itemIds, BookingState state) {
-        LocalDateTime now = LocalDateTime.now();
+    public void streamBookingsForOwner(Long ownerId, @MeterTag(key = "state") BookingState state,
+                                       Consumer<BookingDto> consumer) {
+        findUserById(ownerId);
+        BookingFilter filter = BookingFilter.of(state);
+        try (Stream<BookingView> bookings = bookingRepository.streamByOwner(ownerId, filter.statuses(),
+                filter.phases())) {
+            bookings.map(bookingMapper::toBookingDto).forEach(consumer);
+        }
+    }
 
-        switch (state) {
-            case CURRENT:
-                return bookingRepository.findCurrentBookingsByOwner(itemIds, now);
-            case PAST:
-                return bookingRepository.findAllByItemIdInAndEndBeforeOrderByStartDesc(itemIds, now);
-            case FUTURE:
-                return bookingRepository.findAllByItemIdInAndStartAfterOrderByStartDesc(itemIds, now);
-            case WAITING:
-                return bookingRepository.findAllByItemIdInAndStatusOrderByStartDesc(itemIds, BookingStatus.WAITING);
-            case REJECTED:
-                return bookingRepository.findAllByItemIdInAndStatusOrderByStartDesc(itemIds, BookingStatus.REJECTED);
-            case ALL:
-                return bookingRepository.findAllByItemIdInOrderByStartDesc(itemIds);
-            default:
-                throw new IllegalArgumentException("Item has unknown state");
+    private Pageable toPageable(int from, Integer size, String cursor) {
+        if (from < 0 || (size != null && size <= 0)) {
+            throw new ValidationException("Parameter from must not be negative and size must be positive");
         }
+        if (size == null) {
+            return Pageable.unpaged();
+        }
+        // A cursor already marks the start of the page, so the offset only applies to the first one.
+        return new OffsetPageRequest(cursor == null ? from : 0, size);
+    }
+
+    private BookingPage toBookingPage(List<BookingView> bookings, Integer size) {
+        String nextCursor = size != null && bookings.size() == size
+                ? BookingCursor.of(bookings.get(bookings.size() - 1)).encode()
+                : null;
+        return new BookingPage(bookings.stream().map(bookingMapper::toBookingDto).toList(), nextCursor);
     }
 
-    @Transactional(readOnly = true)
     private User findUserById(Long userId) {
-        return userRepository.findById(userId)
+        userCache.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found"));
+        return userRepository.getReferenceById(userId);
     }
 
     @Transactional(readOnly = true)
@@ -167,10 +382,14 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Transactional(readOnly = true)
-    private void validateBookingAccess(Long userId, Booking booking) {
-        if (!booking.getBooker().getId().equals(userId) &&
-                !booking.getItem().getOwner().getId().equals(userId)) {
+    private void validateBookingAccess(Long userId, BookingView booking) {
+        if (!booking.bookerId().equals(userId) && !booking.itemOwnerId().equals(userId)) {
             throw new NotFoundException("User has no access to booking");
         }
     }
+
+    private static BookingApproved approvedEvent(Booking booking) {
+        return new BookingApproved(booking.getId(), booking.getItem().getId(), booking.getBooker().getId(),
+                booking.getStart(), booking.getEnd());
+    }
 }
\ No newline at end of file
@@ -4,5 +4,7 @@ public enum BookingStatus {
     WAITING,
     APPROVED,
     REJECTED,
-    CANCELED
+    CANCELED,
+    // Still WAITING when it was to start, set by BookingLifecycle.
+    EXPIRED
 }
\ No newline at end of file
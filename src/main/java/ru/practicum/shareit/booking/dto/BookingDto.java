@@ -1,12 +1,11 @@
 package ru.practicum.shareit.booking.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.item.Item;
-import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
 
@@ -14,11 +13,20 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(BookingDto.FIELDS_FILTER)
 public class BookingDto {
+    public static final String FIELDS_FILTER = "bookingFields";
+
     private Long id;
     private LocalDateTime start;
     private LocalDateTime end;
-    private Item item;
-    private User booker;
+    private ItemSummary item;
+    private BookerSummary booker;
     private BookingStatus status;
-}
\ No newline at end of file
+
+    public record ItemSummary(Long id, String name) {
+    }
+
+    public record BookerSummary(Long id) {
+    }
+}
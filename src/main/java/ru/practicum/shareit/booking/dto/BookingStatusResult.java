@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.BookingStatus;
+
+/**
+ * Outcome of one booking of a bulk status update: the new status, or the reason it was left unchanged.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookingStatusResult {
+    private Long id;
+    private BookingStatus status;
+    private String error;
+
+    public static BookingStatusResult updated(Long id, BookingStatus status) {
+        return new BookingStatusResult(id, status, null);
+    }
+
+    public static BookingStatusResult failed(Long id, String error) {
+        return new BookingStatusResult(id, null, error);
+    }
+}
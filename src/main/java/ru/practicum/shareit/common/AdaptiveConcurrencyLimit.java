@@ -0,0 +1,155 @@
+package ru.practicum.shareit.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limit of requests in flight that follows their latency, a simplified gradient algorithm
+ * of Netflix concurrency-limits. A short and a long moving average of the latency are kept: while the short one
+ * stays within {@code tolerance} times the long one the limit grows by about its square root, and once requests
+ * start to queue, on the connection pool above all, it shrinks in proportion to the slowdown.
+ * Admission is a compare-and-set on the number in flight; the limit is recomputed by one thread at a time
+ * and samples arriving meanwhile are skipped. Callers over the limit may wait a short time for a release.
+ */
+public class AdaptiveConcurrencyLimit {
+    private static final double SHORT_WEIGHT = 0.1;
+    private static final double LONG_WEIGHT = 0.01;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double DRIFT_RATIO = 2;
+    private static final double DRIFT_DECAY = 0.95;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock sampling = new ReentrantLock();
+    private final ReentrantLock waiting = new ReentrantLock();
+    private final Condition released = waiting.newCondition();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by sampling.
+    private double estimate;
+    private double shortLatency;
+    private double longLatency;
+
+    public AdaptiveConcurrencyLimit(int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= max, got "
+                    + minLimit + " and " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.estimate = maxLimit;
+        this.limit = maxLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Waits up to {@code timeout} for a permit when the limit is reached. Releases wake one waiter at a time,
+     * a waiter that loses the permit to a new arrival waits again for the rest of its time.
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        if (tryAcquire()) {
+            return true;
+        }
+        long remaining = unit.toNanos(timeout);
+        if (remaining <= 0) {
+            return false;
+        }
+        waiting.lockInterruptibly();
+        // Counted before the retry below, so a release after a failed retry finds the waiter and signals it.
+        waiters.incrementAndGet();
+        try {
+            while (!tryAcquire()) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            waiters.decrementAndGet();
+            waiting.unlock();
+        }
+    }
+
+    /**
+     * Releases a permit without a latency sample, e.g. for a streamed response.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+        signalWaiter();
+    }
+
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        signalWaiter();
+        if (sampling.tryLock()) {
+            try {
+                sample(latencyNanos, current);
+            } finally {
+                sampling.unlock();
+            }
+        }
+    }
+
+    private void signalWaiter() {
+        if (waiters.get() > 0) {
+            waiting.lock();
+            try {
+                released.signal();
+            } finally {
+                waiting.unlock();
+            }
+        }
+    }
+
+    private void sample(long latencyNanos, int current) {
+        if (longLatency == 0) {
+            shortLatency = latencyNanos;
+            longLatency = latencyNanos;
+            return;
+        }
+        shortLatency += (latencyNanos - shortLatency) * SHORT_WEIGHT;
+        longLatency += (latencyNanos - longLatency) * LONG_WEIGHT;
+        if (longLatency > shortLatency * DRIFT_RATIO) {
+            // Requests got lastingly faster, let the long average catch up instead of growing without bound.
+            longLatency *= DRIFT_DECAY;
+        }
+        if (current < estimate / 2) {
+            // Far below the limit the latency says nothing about it.
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1, tolerance * longLatency / shortLatency));
+        double target = estimate * gradient + Math.sqrt(estimate);
+        estimate = Math.max(minLimit, Math.min(maxLimit, estimate * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimate;
+    }
+}
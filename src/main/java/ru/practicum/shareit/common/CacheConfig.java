@@ -0,0 +1,38 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+    public static final String ITEM_COMMENTS = "itemComments";
+    public static final String ITEM_STATS = "itemStats";
+    /**
+     * {@code unless} condition of loaders that may run on the read replica, see {@link ReadReplicaRouting}.
+     */
+    public static final String READ_FROM_REPLICA = "T(ru.practicum.shareit.common.ReadReplicaRouting)"
+            + ".isReadingFromReplica()";
+
+    /**
+     * Caffeine caches configured by {@code spring.cache.*}. Puts and evictions made inside a transaction
+     * are applied only once it commits, so a rolled back write never reaches the cache.
+     */
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        if (properties.getCaffeine().getSpec() != null) {
+            cacheManager.setCacheSpecification(properties.getCaffeine().getSpec());
+        }
+        cacheManager.setCacheNames(properties.getCacheNames());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.common;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "shareit.concurrency.limit.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    /**
+     * Sizes the limits from the connection pool: streams hold up to a quarter of the connections unless
+     * {@code max-streams} is set, and other requests move between one request per remaining connection and
+     * {@code per-connection} requests per remaining connection unless {@code min-in-flight} or {@code max-in-flight}
+     * are set. On platform threads the limit is also kept within the Tomcat pool, which bounds requests anyway.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            DataSource dataSource,
+            MeterRegistry registry,
+            @Value("${shareit.concurrency.limit.min-in-flight:0}") int minInFlight,
+            @Value("${shareit.concurrency.limit.max-in-flight:0}") int maxInFlight,
+            @Value("${shareit.concurrency.limit.max-streams:0}") int maxStreams,
+            @Value("${shareit.concurrency.limit.per-connection:2}") int perConnection,
+            @Value("${shareit.concurrency.limit.latency-tolerance:2}") double tolerance,
+            @Value("${shareit.concurrency.limit.queue-timeout:100ms}") Duration queueTimeout,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${server.tomcat.threads.max:200}") int tomcatThreads) throws SQLException {
+        int streams = maxStreams > 0 ? maxStreams : Math.max(1, poolSize(dataSource) / 4);
+        int max = maxInFlight > 0 ? maxInFlight : Math.max(1, poolSize(dataSource) - streams) * perConnection;
+        if (maxInFlight <= 0 && !virtualThreads) {
+            max = Math.min(max, tomcatThreads);
+        }
+        int min = minInFlight > 0 ? minInFlight : Math.max(1, max / perConnection);
+        log.info("Limiting requests in flight to between {} and {} and streams to {}, queue timeout {}",
+                min, max, streams, queueTimeout);
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(min, max, tolerance);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limit, streams, queueTimeout,
+                RateLimitConfig.rejected(registry, "concurrency-limit", "global"),
+                RateLimitConfig.rejected(registry, "concurrency-limit", "streams"));
+        Gauge.builder("shareit.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Requests allowed in flight")
+                .register(registry);
+        Gauge.builder("shareit.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Requests in flight")
+                .register(registry);
+        Gauge.builder("shareit.concurrency.streams", filter, ConcurrencyLimitFilter::getStreams)
+                .description("NDJSON streams in flight")
+                .register(registry);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    private static int poolSize(DataSource dataSource) throws SQLException {
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            return poolSize(dataSource.unwrap(HikariDataSource.class));
+        }
+        throw new IllegalStateException("Set shareit.concurrency.limit.max-in-flight, the pool size is unknown");
+    }
+
+    static int poolSize(HikariDataSource pool) {
+        // Hikari reports -1 until the pool starts when the size was left at its default.
+        int size = pool.getMaximumPoolSize();
+        return size > 0 ? size : HIKARI_DEFAULT_POOL_SIZE;
+    }
+}
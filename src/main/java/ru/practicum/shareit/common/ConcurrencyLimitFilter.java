@@ -0,0 +1,185 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the number of requests in flight by an {@link AdaptiveConcurrencyLimit}, so that requests over it are
+ * rejected with 503 after a short wait instead of queuing on the connection pool. Platform threads were bounded by
+ * the Tomcat pool, virtual threads are not, and neither pool knows how many requests the database keeps up with.
+ * Requests accepting NDJSON hold a connection for as long as their consumer reads, so they are bounded separately
+ * by {@code maxStreams} and do not take from the adaptive limit.
+ */
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final AdaptiveConcurrencyLimit limit;
+    private final int maxStreams;
+    private final Semaphore streams;
+    private final long queueTimeoutNanos;
+    private final Counter rejected;
+    private final Counter rejectedStreams;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit limit, int maxStreams, Duration queueTimeout,
+                                  Counter rejected, Counter rejectedStreams) {
+        this.limit = limit;
+        this.maxStreams = maxStreams;
+        this.streams = new Semaphore(maxStreams);
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.rejected = rejected;
+        this.rejectedStreams = rejectedStreams;
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getMaxLimit() {
+        return limit.getMaxLimit();
+    }
+
+    public int getInFlight() {
+        return limit.getInFlight();
+    }
+
+    public int getMaxStreams() {
+        return maxStreams;
+    }
+
+    public int getStreams() {
+        return maxStreams - streams.availablePermits();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (acceptsNdjson(request)) {
+            filterStream(request, response, chain);
+            return;
+        }
+        if (!acquire(request, response, limit::tryAcquire, rejected)) {
+            return;
+        }
+        long started = System.nanoTime();
+        boolean releaseOnComplete = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Streaming responses keep using the database after this thread returns.
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limit::release));
+                releaseOnComplete = true;
+            }
+        } finally {
+            if (!releaseOnComplete) {
+                limit.release(System.nanoTime() - started);
+            }
+        }
+    }
+
+    private void filterStream(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!acquire(request, response, streams::tryAcquire, rejectedStreams)) {
+            return;
+        }
+        boolean releaseOnComplete = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(streams::release));
+                releaseOnComplete = true;
+            }
+        } finally {
+            if (!releaseOnComplete) {
+                streams.release();
+            }
+        }
+    }
+
+    /**
+     * Waits up to the queue timeout for a permit, then answers 503.
+     */
+    private boolean acquire(HttpServletRequest request, HttpServletResponse response, TimedAcquire acquire,
+                            Counter rejections) throws IOException {
+        boolean acquired;
+        try {
+            acquired = acquire.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejections.increment();
+            log.debug("Rejected {} {}: {} requests and {} streams in flight", request.getMethod(),
+                    request.getRequestURI(), limit.getInFlight(), getStreams());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+        return acquired;
+    }
+
+    private static boolean acceptsNdjson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        } catch (InvalidMediaTypeException e) {
+            // Left to content negotiation to answer.
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface TimedAcquire {
+        boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException;
+    }
+
+    /**
+     * Streams last as long as their consumer reads, so their duration is not taken as a latency sample.
+     */
+    private static final class ReleaseOnComplete implements AsyncListener {
+        private final Runnable release;
+
+        private ReleaseOnComplete(Runnable release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.common;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Watches the primary connection pool. Exports how saturated it is, connections in use and requests waiting
+ * for one against its size, and warns at startup when more requests may run at once than the pool serves:
+ * the rest would wait for a connection up to {@code spring.datasource.hikari.connection-timeout}.
+ * Requests hold a connection only during their transactions, so a connection serves {@code per-connection}
+ * requests in flight.
+ */
+@Slf4j
+public class ConnectionPoolCheck {
+    private final HikariDataSource pool;
+    private final int requestConcurrency;
+    private final int perConnection;
+
+    public ConnectionPoolCheck(HikariDataSource pool, int requestConcurrency, int perConnection,
+                               MeterRegistry registry) {
+        this.pool = pool;
+        this.requestConcurrency = requestConcurrency;
+        this.perConnection = perConnection;
+        Gauge.builder("shareit.datasource.pool.saturation", this, ConnectionPoolCheck::saturation)
+                .description("Connections in use and requests waiting for one per connection of the pool")
+                .register(registry);
+    }
+
+    public int getCapacity() {
+        return ConcurrencyLimitConfig.poolSize(pool) * perConnection;
+    }
+
+    public boolean exceedsCapacity() {
+        return requestConcurrency > getCapacity();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        if (exceedsCapacity()) {
+            log.warn("Up to {} requests may run at once, but a pool of {} connections serves about {}; the rest " +
+                            "wait up to {} ms for a connection. Enable shareit.concurrency.limit or grow the pool",
+                    requestConcurrency == Integer.MAX_VALUE ? "unbounded" : requestConcurrency,
+                    ConcurrencyLimitConfig.poolSize(pool), getCapacity(), pool.getConnectionTimeout());
+        } else {
+            log.info("Up to {} requests at once on a pool of {} connections", requestConcurrency,
+                    ConcurrencyLimitConfig.poolSize(pool));
+        }
+    }
+
+    private double saturation() {
+        HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+        if (bean == null) {
+            return Double.NaN;
+        }
+        return (double) (bean.getActiveConnections() + bean.getThreadsAwaitingConnection())
+                / ConcurrencyLimitConfig.poolSize(pool);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.common;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+public class ConnectionPoolConfig {
+    @Bean
+    public ConnectionPoolCheck connectionPoolCheck(
+            DataSource dataSource,
+            MeterRegistry registry,
+            ObjectProvider<FilterRegistrationBean<ConcurrencyLimitFilter>> concurrencyLimit,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${server.tomcat.threads.max:200}") int tomcatThreads,
+            @Value("${shareit.concurrency.limit.per-connection:2}") int perConnection) throws SQLException {
+        FilterRegistrationBean<ConcurrencyLimitFilter> limit = concurrencyLimit.getIfAvailable();
+        int requestConcurrency = requestConcurrency(limit != null ? limit.getFilter() : null, virtualThreads,
+                tomcatThreads, perConnection);
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            throw new IllegalStateException("The primary data source is not a Hikari pool");
+        }
+        return new ConnectionPoolCheck(dataSource.unwrap(HikariDataSource.class), requestConcurrency, perConnection,
+                registry);
+    }
+
+    /**
+     * The bound in effect on requests running at once: the Tomcat pool on platform threads, the concurrency limit
+     * when it is enabled and lower, and nothing on virtual threads without it. A stream holds its connection
+     * throughout, so it counts as {@code per-connection} requests.
+     */
+    static int requestConcurrency(ConcurrencyLimitFilter limit, boolean virtualThreads, int tomcatThreads,
+                                  int perConnection) {
+        int threads = virtualThreads ? Integer.MAX_VALUE : tomcatThreads;
+        if (limit == null) {
+            return threads;
+        }
+        return Math.min(limit.getMaxLimit(), threads) + limit.getMaxStreams() * perConnection;
+    }
+}
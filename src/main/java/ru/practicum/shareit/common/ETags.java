@@ -0,0 +1,20 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+public final class ETags {
+    private ETags() {
+    }
+
+    /**
+     * Strong entity tag of a representation identified by the given versions, {@code null} parts included.
+     */
+    public static String of(Object... versions) {
+        String key = Arrays.stream(versions).map(String::valueOf).collect(Collectors.joining(":"));
+        return "\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.common;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache on Caffeine: entities marked {@code @Cache} with one of the regions below, and
+ * queries with the {@code org.hibernate.cacheable} hint. Hibernate keeps them in step with its own writes, and
+ * native updates name the tables they change, qualified by {@code hibernate.default_schema}, with the
+ * {@code org.hibernate.query.native.spaces} hint. A native update without it empties every region.
+ */
+@Configuration
+public class EntityCacheConfig {
+    public static final String USERS = "userEntities";
+    public static final String ITEMS = "itemEntities";
+    public static final String REQUESTS = "requestEntities";
+
+    /**
+     * Creates every region up front, Hibernate fails to start on a region missing here instead of creating
+     * an unbounded one. The update timestamps region, which cached query results are checked against,
+     * holds one entry per table and must not lose them, so it is neither bounded nor expired.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer entityCache(
+            @Value("${shareit.entity-cache.maximum-size:10000}") long maximumSize,
+            @Value("${shareit.entity-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // The provider hands out one manager per URI, each application context gets its own. Hibernate closes it.
+        CacheManager cacheManager = provider.getCacheManager(URI.create("shareit:" + UUID.randomUUID()),
+                provider.getDefaultClassLoader());
+        List<String> bounded = List.of(USERS, ITEMS, REQUESTS,
+                RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+        for (String region : bounded) {
+            cacheManager.createCache(region, region()
+                    .setMaximumSize(OptionalLong.of(maximumSize))
+                    .setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos())));
+        }
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region());
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> region() {
+        // Hibernate caches disassembled state, which is never changed in place, so entries need not be copied.
+        return new CaffeineConfiguration<>().setStoreByValue(false);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.common;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+    /**
+     * DTOs marked with {@code @JsonFilter} serialize all properties unless a response supplies its own filter.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer optionalPropertyFilters() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.aop.MeterTagAnnotationHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import ru.practicum.shareit.booking.BookingState;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Configuration
+public class MetricsConfig {
+    private static final String NO_STATE = "none";
+    private static final Set<String> STATES = Arrays.stream(BookingState.values())
+            .map(Enum::name)
+            .collect(Collectors.toUnmodifiableSet());
+
+    /**
+     * Tag value for the {@code state} request parameter. Unknown values collapse to one tag to bound cardinality.
+     */
+    static String stateTag(HttpServletRequest request) {
+        String state = request.getParameter("state");
+        return state != null && STATES.contains(state) ? state : NO_STATE;
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof SqlCountingDataSource)
+                        ? new SqlCountingDataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    /**
+     * Lets {@code @MeterTag} parameters of {@code @Timed} methods become tags, e.g. the booking state.
+     */
+    @Bean
+    public MeterTagAnnotationHandler meterTagAnnotationHandler(BeanFactory beanFactory) {
+        return new MeterTagAnnotationHandler(beanFactory::getBean, beanFactory::getBean);
+    }
+
+    /**
+     * Adds the booking state to {@code http.server.requests}.
+     */
+    @Bean
+    public ServerRequestObservationConvention stateTaggingObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and("state", stateTag(context.getCarrier()));
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(
+            MeterRegistry registry,
+            @Value("${shareit.slow-request.threshold:500ms}") Duration slowThreshold) {
+        FilterRegistrationBean<RequestMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestMetricsFilter(registry, slowThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "shareit.rate-limit.enabled", havingValue = "true")
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig implements WebMvcConfigurer {
+    private final RateLimiter rateLimiter;
+    private final MeterRegistry registry;
+
+    public RateLimitConfig(RateLimitProperties properties, MeterRegistry registry) {
+        this.rateLimiter = new RateLimiter(properties);
+        this.registry = registry;
+        properties.endpoints().keySet().forEach(endpoint -> rejected(registry, "rate-limit", endpoint));
+        log.info("Rate limits per user: {}", properties.endpoints());
+    }
+
+    /**
+     * Requests turned away by a {@code reason}: {@code rate-limit} of a {@code limit} or {@code concurrency-limit}.
+     */
+    static Counter rejected(MeterRegistry registry, String reason, String limit) {
+        return Counter.builder("shareit.requests.rejected")
+                .description("Requests rejected before reaching a handler")
+                .tag("reason", reason)
+                .tag("limit", limit)
+                .register(registry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter, this.registry));
+    }
+}
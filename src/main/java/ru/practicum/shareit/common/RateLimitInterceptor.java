@@ -0,0 +1,66 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers 429 with {@code Retry-After} to users over the rate limit of a {@link RateLimited} handler,
+ * before anything touches the database.
+ */
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+
+    private final RateLimiter rateLimiter;
+    private final MeterRegistry registry;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, MeterRegistry registry) {
+        this.rateLimiter = rateLimiter;
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        RateLimited rateLimited = method.getMethodAnnotation(RateLimited.class);
+        Long userId = userId(request);
+        if (rateLimited == null || userId == null) {
+            return true;
+        }
+        long wait = rateLimiter.tryAcquire(rateLimited.value(), userId);
+        if (wait == 0) {
+            return true;
+        }
+        RateLimitConfig.rejected(registry, "rate-limit", rateLimited.value()).increment();
+        log.debug("Rejected {} {} of user {}: over the {} rate limit", request.getMethod(), request.getRequestURI(),
+                userId, rateLimited.value());
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+        return false;
+    }
+
+    private static Long userId(HttpServletRequest request) {
+        String header = request.getHeader(HEADER_USER_ID);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * @param idleTimeout how long the bucket of a user survives without requests; it should exceed the time a bucket
+ *                    takes to refill, or a user returning in between gets a full burst early
+ * @param endpoints   limits by the name given in {@link RateLimited}
+ */
+@ConfigurationProperties("shareit.rate-limit")
+public record RateLimitProperties(@DefaultValue("10m") Duration idleTimeout,
+                                  @DefaultValue Map<String, Limit> endpoints) {
+    /**
+     * @param permitsPerSecond sustained rate of one user
+     * @param burst            requests a user may make at once after being idle
+     */
+    public record Limit(double permitsPerSecond, int burst) {
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.common;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits how often each {@code X-Sharer-User-Id} may call the handler, by the limit configured under
+ * {@code shareit.rate-limit.endpoints.<value>}. Handlers without a configured limit are not limited.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+    String value();
+}
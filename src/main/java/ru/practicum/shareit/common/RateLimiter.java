@@ -0,0 +1,64 @@
+package ru.practicum.shareit.common;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per user and endpoint. Each bucket is a single atomic "theoretical arrival time" (the generic cell
+ * rate algorithm): a request passes while that time is at most {@code burst - 1} intervals ahead of now and moves it
+ * one interval further, which is a token bucket of {@code burst} tokens updated by one compare-and-set.
+ * Buckets of users idle for {@code idle-timeout} are evicted.
+ */
+public class RateLimiter {
+    private final Map<String, Rate> rates = new HashMap<>();
+    private final Cache<Key, AtomicLong> buckets;
+
+    public RateLimiter(RateLimitProperties properties) {
+        properties.endpoints().forEach((endpoint, limit) -> {
+            if (limit.permitsPerSecond() <= 0 || limit.burst() < 1) {
+                throw new IllegalArgumentException("Rate limit of " + endpoint + " needs a positive rate and burst");
+            }
+            long interval = Math.round(Duration.ofSeconds(1).toNanos() / limit.permitsPerSecond());
+            rates.put(endpoint, new Rate(interval, interval * (limit.burst() - 1)));
+        });
+        buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.idleTimeout())
+                .build();
+    }
+
+    /**
+     * Takes a token of the user's bucket for the endpoint.
+     *
+     * @return 0 when the request may pass, otherwise nanoseconds until the next token
+     */
+    public long tryAcquire(String endpoint, long userId) {
+        Rate rate = rates.get(endpoint);
+        if (rate == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        AtomicLong arrival = buckets.get(new Key(endpoint, userId), key -> new AtomicLong(now));
+        while (true) {
+            long current = arrival.get();
+            long start = current - now > 0 ? current : now;
+            long wait = start - now - rate.tolerance();
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, start + rate.interval())) {
+                return 0;
+            }
+        }
+    }
+
+    private record Rate(long interval, long tolerance) {
+    }
+
+    private record Key(String endpoint, long userId) {
+    }
+}
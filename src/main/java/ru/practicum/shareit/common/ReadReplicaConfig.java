@@ -0,0 +1,75 @@
+package ru.practicum.shareit.common;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Replaces the single pool with {@link ReadReplicaRouting} when {@code shareit.datasource.replica.url} is set.
+ * The primary pool is configured by {@code spring.datasource.*}, the replica by {@code shareit.datasource.replica.*},
+ * whose user, password and driver default to the primary ones. Neither pool is a bean of its own,
+ * so the SQL counting wrapper and the Hikari metrics see each connection once.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "shareit.datasource.replica.url")
+public class ReadReplicaConfig {
+    private static final String REPLICA_PREFIX = "shareit.datasource.replica";
+
+    @Bean
+    public ReadReplicaRouting readReplicaRouting(
+            DataSourceProperties properties, Environment environment, MeterRegistry registry,
+            @Value("${shareit.datasource.replica.lag-query}") String lagQuery,
+            @Value("${shareit.datasource.replica.max-lag:2s}") Duration maxLag) {
+        HikariDataSource primary = pool(properties, environment, "spring.datasource.hikari", "primary", registry);
+
+        DataSourceProperties replicaProperties = new DataSourceProperties();
+        replicaProperties.setDriverClassName(properties.determineDriverClassName());
+        replicaProperties.setUsername(properties.determineUsername());
+        replicaProperties.setPassword(properties.determinePassword());
+        Binder.get(environment).bind(REPLICA_PREFIX, Bindable.ofInstance(replicaProperties));
+        HikariDataSource replica = pool(replicaProperties, environment, REPLICA_PREFIX + ".hikari", "replica",
+                registry);
+        replica.setReadOnly(true);
+
+        log.info("Routing read-only transactions to {} while it lags at most {}", replica.getJdbcUrl(), maxLag);
+        return new ReadReplicaRouting(primary, replica, lagQuery, maxLag, registry);
+    }
+
+    @Bean
+    public DataSource dataSource(ReadReplicaRouting readReplicaRouting) {
+        return readReplicaRouting.getDataSource();
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${shareit.datasource.replica.sticky-window:5s}") Duration stickyWindow) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(stickyWindow));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 30);
+        return registration;
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String prefix,
+                                         String name, MeterRegistry registry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind(prefix, Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        return pool;
+    }
+}
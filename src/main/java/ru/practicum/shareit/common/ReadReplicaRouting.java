@@ -0,0 +1,168 @@
+package ru.practicum.shareit.common;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.CacheStoreMode;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary. Reads stay on the primary
+ * while the replica lags more than {@code max-lag} or cannot be asked for its lag, and while the current request
+ * is {@link #pinToPrimary() pinned} to it. The connection is taken on the first statement, so the read-only flag
+ * of the transaction is known by then.
+ */
+@Slf4j
+public class ReadReplicaRouting implements AutoCloseable {
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> ON_REPLICA = new ThreadLocal<>();
+
+    private enum Target { PRIMARY, REPLICA }
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final JdbcTemplate replicaJdbc;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final DataSource dataSource;
+    private final Counter replicaReads;
+    private final Counter stickyReads;
+    private final Counter laggingReads;
+    private volatile Duration lag;
+
+    public ReadReplicaRouting(HikariDataSource primary, HikariDataSource replica, String lagQuery, Duration maxLag,
+                              MeterRegistry registry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaJdbc = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return route();
+            }
+        };
+        routing.setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        replicaReads = readCounter(registry, "replica");
+        stickyReads = readCounter(registry, "primary-sticky");
+        laggingReads = readCounter(registry, "primary-lag");
+        Gauge.builder("shareit.datasource.replica.lag", this,
+                        r -> r.lag == null ? Double.NaN : r.lag.toMillis() / 1000.0)
+                .description("Replication lag of the read replica in seconds, NaN when it can not be measured")
+                .register(registry);
+        checkLag();
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Keeps read-only transactions of the current thread on the primary until {@link #unpin()}.
+     */
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    /**
+     * Whether the current transaction reads from the replica. Caches do not keep such values:
+     * an entry evicted on commit could otherwise be loaded again from a replica that has not caught up.
+     * The second-level cache is still read, but not filled, by such transactions.
+     */
+    public static boolean isReadingFromReplica() {
+        return ON_REPLICA.get() != null;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.datasource.replica.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        try {
+            Double seconds = replicaJdbc.queryForObject(lagQuery, Double.class);
+            recordLag(Duration.ofMillis(Math.round((seconds == null ? 0 : seconds) * 1000)));
+        } catch (RuntimeException e) {
+            if (lag != null) {
+                log.warn("Replication lag of the read replica can not be measured, reading from the primary", e);
+            }
+            recordLag(null);
+        }
+    }
+
+    /**
+     * Records a lag measurement, {@code null} when the replica did not answer.
+     */
+    public void recordLag(Duration lag) {
+        boolean wasUsable = isUsable(this.lag);
+        this.lag = lag;
+        if (wasUsable != isUsable(lag)) {
+            log.info("Read replica {}, lag {}", isUsable(lag) ? "in use" : "bypassed", lag);
+        }
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+
+    private Target route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.PRIMARY;
+        }
+        if (PINNED.get() != null) {
+            stickyReads.increment();
+            return Target.PRIMARY;
+        }
+        if (!isUsable(lag)) {
+            laggingReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            ON_REPLICA.set(Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ON_REPLICA.remove();
+                }
+            });
+            TransactionSynchronizationManager.getResourceMap().values().stream()
+                    .filter(EntityManagerHolder.class::isInstance)
+                    .forEach(holder -> ((EntityManagerHolder) holder).getEntityManager()
+                            .setProperty(AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE, CacheStoreMode.BYPASS));
+        }
+        return Target.REPLICA;
+    }
+
+    private boolean isUsable(Duration lag) {
+        return lag != null && lag.compareTo(maxLag) <= 0;
+    }
+
+    private static Counter readCounter(MeterRegistry registry, String route) {
+        return Counter.builder("shareit.datasource.reads")
+                .description("Connections taken by read-only transactions")
+                .tag("route", route)
+                .register(registry);
+    }
+}
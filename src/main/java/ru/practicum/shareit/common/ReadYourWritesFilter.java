@@ -0,0 +1,60 @@
+package ru.practicum.shareit.common;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Pins the reads of a user to the primary for {@code sticky-window} after a successful write of theirs,
+ * so they see their own booking even if the replica has not replayed it yet. Users are tracked per instance,
+ * and NDJSON streams, which run on another thread, are not pinned.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final Set<String> READ_METHODS = Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(),
+            HttpMethod.OPTIONS.name());
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(Duration stickyWindow) {
+        recentWriters = Caffeine.newBuilder().expireAfterWrite(stickyWindow).build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Long userId = userId(request);
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            ReadReplicaRouting.pinToPrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadReplicaRouting.unpin();
+            if (userId != null && !READ_METHODS.contains(request.getMethod()) && response.getStatus() < 400) {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+        }
+    }
+
+    private static Long userId(HttpServletRequest request) {
+        String header = request.getHeader(HEADER_USER_ID);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Records SQL statements and rows per request and logs requests slower than the threshold with their SQL.
+ * Statements run after the request thread returns, as in NDJSON streaming, are not attributed.
+ */
+@Slf4j
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    private static final int SLOW_LOG_STATEMENTS = 10;
+
+    private final MeterRegistry registry;
+    private final Duration slowThreshold;
+
+    public RequestMetricsFilter(MeterRegistry registry, Duration slowThreshold) {
+        this.registry = registry;
+        this.slowThreshold = slowThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatistics sql = SqlStatistics.start();
+        long started = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStatistics.stop();
+            record(request, response, sql, Duration.ofNanos(System.nanoTime() - started));
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, SqlStatistics sql,
+                        Duration elapsed) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri, "state", MetricsConfig.stateTag(request));
+        DistributionSummary.builder("shareit.request.sql.statements")
+                .description("SQL statements executed per request")
+                .tags(tags)
+                .register(registry)
+                .record(sql.getStatements());
+        DistributionSummary.builder("shareit.request.sql.rows")
+                .description("Rows fetched per request")
+                .tags(tags)
+                .register(registry)
+                .record(sql.getRows());
+
+        if (elapsed.compareTo(slowThreshold) >= 0) {
+            String query = request.getQueryString();
+            log.warn("Slow request {} {} -> {} took {} ms: {} statements in {} ms, {} rows\n{}",
+                    request.getMethod(), query == null ? request.getRequestURI() : request.getRequestURI() + "?" + query,
+                    response.getStatus(), elapsed.toMillis(), sql.getStatements(),
+                    String.format("%.2f", sql.getNanos() / 1e6), sql.getRows(), sql.breakdown(SLOW_LOG_STATEMENTS));
+        }
+    }
+}
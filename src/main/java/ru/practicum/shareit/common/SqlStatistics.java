@@ -0,0 +1,96 @@
+package ru.practicum.shareit.common;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * SQL statements and rows of the current request, collected by {@link SqlCountingDataSource}.
+ * Nothing is collected on threads that did not call {@link #start()}.
+ */
+public final class SqlStatistics {
+    private static final int MAX_DISTINCT_STATEMENTS = 50;
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Entry> bySql = new LinkedHashMap<>();
+    private long statements;
+    private long rows;
+    private long nanos;
+
+    private SqlStatistics() {
+    }
+
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    static void recordStatement(String sql, long elapsedNanos) {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics == null) {
+            return;
+        }
+        statistics.statements++;
+        statistics.nanos += elapsedNanos;
+        Entry entry = statistics.bySql.get(sql);
+        if (entry == null && statistics.bySql.size() < MAX_DISTINCT_STATEMENTS) {
+            entry = new Entry();
+            statistics.bySql.put(sql, entry);
+        }
+        if (entry != null) {
+            entry.count++;
+            entry.nanos += elapsedNanos;
+        }
+    }
+
+    static void recordRow() {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.rows++;
+        }
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Distinct statements in execution order, up to the first 50.
+     */
+    public Set<String> getSql() {
+        return Collections.unmodifiableSet(bySql.keySet());
+    }
+
+    /**
+     * The most expensive statements first, one line each: count, total milliseconds and SQL.
+     */
+    public String breakdown(int limit) {
+        return bySql.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Entry> e) -> e.getValue().nanos).reversed())
+                .limit(limit)
+                .map(e -> String.format("%4dx %8.2fms  %s", e.getValue().count, e.getValue().nanos / 1e6,
+                        e.getKey().replaceAll("\\s+", " ")))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static final class Entry {
+        private long count;
+        private long nanos;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.event;
+
+import java.time.LocalDateTime;
+
+public record BookingApproved(Long bookingId, Long itemId, Long bookerId, LocalDateTime start, LocalDateTime end)
+        implements DomainEvent {
+}
@@ -0,0 +1,4 @@
+package ru.practicum.shareit.event;
+
+public record CommentAdded(Long commentId, Long itemId, Long authorId) implements DomainEvent {
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.event;
+
+/**
+ * Change of the domain published through the outbox. The simple class name is stored as the event type.
+ */
+public sealed interface DomainEvent permits BookingCreated, BookingApproved, CommentAdded {
+}
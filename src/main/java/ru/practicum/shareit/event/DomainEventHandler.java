@@ -0,0 +1,11 @@
+package ru.practicum.shareit.event;
+
+import java.util.List;
+
+/**
+ * Consumer of outbox events. Called in the transaction that removes the events from the outbox, so database
+ * changes of a handler are applied exactly once; anything else may see an event again after a failure.
+ */
+public interface DomainEventHandler {
+    void handle(List<DomainEvent> events);
+}
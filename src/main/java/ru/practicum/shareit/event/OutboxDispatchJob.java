@@ -0,0 +1,18 @@
+package ru.practicum.shareit.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class OutboxDispatchJob {
+    private final OutboxDispatcher outboxDispatcher;
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.poll-interval-ms:200}")
+    public void dispatch() {
+        outboxDispatcher.dispatch();
+    }
+}
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.AfterCommit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers outbox events to the {@link DomainEventHandler}s in batches. A batch is handed to every handler and
+ * removed from the outbox in one transaction, so an event is delivered at least once. A failed batch is retried
+ * event by event; an event that keeps failing is left in the outbox with its error after {@code max-attempts}.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final Map<String, Class<?>> TYPES = Arrays.stream(DomainEvent.class.getPermittedSubclasses())
+            .collect(Collectors.toUnmodifiableMap(Class::getSimpleName, Function.identity()));
+
+    private final OutboxRepository repository;
+    private final List<DomainEventHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int maxAttempts;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter dispatched;
+    private final Counter failures;
+    private final Counter deadLettered;
+    private final Timer deliveryDelay;
+
+    public OutboxDispatcher(OutboxRepository repository, List<DomainEventHandler> handlers,
+                            TransactionTemplate transactionTemplate, ObjectMapper objectMapper, MeterRegistry registry,
+                            @Value("${shareit.outbox.batch-size:500}") int batchSize,
+                            @Value("${shareit.outbox.max-batches-per-run:20}") int maxBatchesPerRun,
+                            @Value("${shareit.outbox.max-attempts:10}") int maxAttempts) {
+        this.repository = repository;
+        this.handlers = handlers;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxAttempts = maxAttempts;
+        Gauge.builder("shareit.outbox.pending", pending, AtomicLong::get)
+                .description("Events waiting in the outbox")
+                .register(registry);
+        Gauge.builder("shareit.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Age of the oldest event waiting in the outbox, in seconds")
+                .register(registry);
+        dispatched = Counter.builder("shareit.outbox.dispatched").register(registry);
+        failures = Counter.builder("shareit.outbox.failures")
+                .description("Failed deliveries of single events")
+                .register(registry);
+        deadLettered = Counter.builder("shareit.outbox.dead")
+                .description("Events left in the outbox after max-attempts failed deliveries")
+                .register(registry);
+        deliveryDelay = Timer.builder("shareit.outbox.delivery.delay")
+                .description("Time from publishing an event to its delivery")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Delivers batches until one comes back short or {@code max-batches-per-run} is reached. Events are read
+     * only as fast as the handlers take them, a backlog waits in the table instead of in memory.
+     * Returns the number of delivered events.
+     */
+    public int dispatch() {
+        int delivered = 0;
+        boolean failed = false;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int claimed;
+            try {
+                claimed = transactionTemplate.execute(tx -> deliver(repository.lockPending(maxAttempts, batchSize)));
+            } catch (RuntimeException e) {
+                log.warn("Delivery of an outbox batch failed, delivering its events one by one", e);
+                delivered += dispatchOneByOne();
+                // Events that failed again wait for the next run.
+                failed = true;
+                break;
+            }
+            delivered += claimed;
+            if (claimed < batchSize) {
+                break;
+            }
+        }
+        if (delivered > 0 || failed || pending.get() > 0) {
+            OutboxRepository.Backlog backlog = repository.findBacklog(maxAttempts);
+            pending.set(backlog.pending());
+            lagMillis.set(backlog.oldest() == null ? 0
+                    : Duration.between(backlog.oldest(), LocalDateTime.now()).toMillis());
+        }
+        return delivered;
+    }
+
+    private int dispatchOneByOne() {
+        int delivered = 0;
+        for (Long id : repository.findPendingIds(maxAttempts, batchSize)) {
+            try {
+                delivered += transactionTemplate.execute(tx ->
+                        deliver(repository.lockPending(id, maxAttempts).stream().toList()));
+            } catch (RuntimeException e) {
+                recordFailure(id, e);
+            }
+        }
+        return delivered;
+    }
+
+    private int deliver(List<OutboxEvent> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<DomainEvent> events = rows.stream().map(this::toDomainEvent).toList();
+        handlers.forEach(handler -> handler.handle(events));
+        repository.deleteAll(rows.stream().map(OutboxEvent::id).toList());
+        LocalDateTime now = LocalDateTime.now();
+        AfterCommit.run(() -> {
+            rows.forEach(row -> deliveryDelay.record(Duration.between(row.created(), now)));
+            dispatched.increment(rows.size());
+        });
+        return rows.size();
+    }
+
+    private void recordFailure(Long id, RuntimeException e) {
+        failures.increment();
+        String error = String.valueOf(e.getMessage());
+        int attempts = transactionTemplate.execute(tx -> repository.recordFailure(id,
+                error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH))));
+        if (attempts >= maxAttempts) {
+            deadLettered.increment();
+            log.error("Outbox event {} failed {} times and will not be delivered again", id, attempts, e);
+        } else {
+            log.warn("Outbox event {} failed, attempt {} of {}", id, attempts, maxAttempts, e);
+        }
+    }
+
+    private DomainEvent toDomainEvent(OutboxEvent row) {
+        Class<?> type = TYPES.get(row.type());
+        if (type == null) {
+            throw new IllegalStateException("Unknown outbox event type " + row.type());
+        }
+        try {
+            return (DomainEvent) objectMapper.readValue(row.payload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed payload of outbox event " + row.id(), e);
+        }
+    }
+}
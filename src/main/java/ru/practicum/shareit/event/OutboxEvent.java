@@ -0,0 +1,9 @@
+package ru.practicum.shareit.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of {@code outbox_events}.
+ */
+public record OutboxEvent(Long id, String type, String payload, LocalDateTime created, int attempts) {
+}
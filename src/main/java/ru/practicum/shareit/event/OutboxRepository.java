@@ -0,0 +1,75 @@
+package ru.practicum.shareit.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The outbox is append-only and has no relations, so it is written with plain JDBC batches.
+ * Rows are claimed with {@code FOR UPDATE SKIP LOCKED}, so several dispatchers never take the same event.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+    private static final String COLUMNS = "select id, type, payload, created, attempts from outbox_events ";
+    private static final RowMapper<OutboxEvent> ROW_MAPPER = (rs, rowNum) -> new OutboxEvent(rs.getLong("id"),
+            rs.getString("type"), rs.getString("payload"), rs.getTimestamp("created").toLocalDateTime(),
+            rs.getInt("attempts"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate("insert into outbox_events (type, payload, created) values (?, ?, ?)", events,
+                events.size(), (ps, event) -> {
+                    ps.setString(1, event.type());
+                    ps.setString(2, event.payload());
+                    ps.setTimestamp(3, Timestamp.valueOf(event.created()));
+                });
+    }
+
+    public List<OutboxEvent> lockPending(int maxAttempts, int limit) {
+        return jdbcTemplate.query(COLUMNS + "where attempts < ? order by id limit ? for update skip locked",
+                ROW_MAPPER, maxAttempts, limit);
+    }
+
+    public Optional<OutboxEvent> lockPending(long id, int maxAttempts) {
+        return jdbcTemplate.query(COLUMNS + "where id = ? and attempts < ? for update skip locked",
+                ROW_MAPPER, id, maxAttempts).stream().findFirst();
+    }
+
+    public List<Long> findPendingIds(int maxAttempts, int limit) {
+        return jdbcTemplate.queryForList("select id from outbox_events where attempts < ? order by id limit ?",
+                Long.class, maxAttempts, limit);
+    }
+
+    public void deleteAll(List<Long> ids) {
+        jdbcTemplate.batchUpdate("delete from outbox_events where id = ?", ids, ids.size(),
+                (ps, id) -> ps.setLong(1, id));
+    }
+
+    /**
+     * Returns the number of failed attempts of the event including this one.
+     */
+    public int recordFailure(long id, String error) {
+        jdbcTemplate.update("update outbox_events set attempts = attempts + 1, last_error = ? where id = ?",
+                error, id);
+        return jdbcTemplate.queryForObject("select attempts from outbox_events where id = ?", Integer.class, id);
+    }
+
+    public Backlog findBacklog(int maxAttempts) {
+        return jdbcTemplate.queryForObject("select count(*), min(created) from outbox_events where attempts < ?",
+                (rs, rowNum) -> {
+                    Timestamp oldest = rs.getTimestamp(2);
+                    return new Backlog(rs.getLong(1), oldest == null ? null : oldest.toLocalDateTime());
+                }, maxAttempts);
+    }
+
+    public record Backlog(long pending, LocalDateTime oldest) {
+    }
+}
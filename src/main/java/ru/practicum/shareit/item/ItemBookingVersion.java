@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item;
+
+public interface ItemBookingVersion {
+    Long getId();
+
+    Long getBookingVersion();
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.item;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.CacheConfig;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-through cache of comment lists and stats of items, evicted by {@link ItemServiceImpl}; items themselves
+ * come from the Hibernate second-level cache. Cached values are shared, copy them before changing anything.
+ * Values read on the replica are not cached.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemCache {
+    private final ItemRepository repository;
+    private final CommentRepository commentRepository;
+    private final ItemStatsRepository itemStatsRepository;
+    private final ItemMapper itemMapper;
+    private final CommentMapper commentMapper;
+
+    @Transactional
+    public Optional<ItemDto> findById(Long id) {
+        return repository.findById(id).map(itemMapper::toItemDto);
+    }
+
+    @Transactional
+    @Cacheable(cacheNames = CacheConfig.ITEM_COMMENTS, key = "#itemId", unless = CacheConfig.READ_FROM_REPLICA)
+    public List<CommentDto> findComments(Long itemId) {
+        return commentRepository.findByItemId(itemId).stream()
+                .map(commentMapper::toCommentDto)
+                .toList();
+    }
+
+    /**
+     * Evicted by {@link ItemStatsRecorder}.
+     */
+    @Transactional
+    @Cacheable(cacheNames = CacheConfig.ITEM_STATS, key = "#itemId",
+            unless = "#result == null or " + CacheConfig.READ_FROM_REPLICA)
+    public Optional<ItemStats> findStats(Long itemId) {
+        return itemStatsRepository.findById(itemId);
+    }
+}
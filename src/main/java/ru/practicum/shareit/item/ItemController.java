@@ -1,15 +1,35 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.common.ETags;
+import ru.practicum.shareit.common.RateLimited;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportProgress;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 @RestController("itemController")
@@ -18,24 +38,78 @@ import java.util.List;
 @RequestMapping(path = "/items")
 public class ItemController {
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    // An owner list follows every booking of the owner's items, so it is revalidated on each request.
+    private static final CacheControl OWNER_ITEMS_CACHE = CacheControl.noCache().cachePrivate();
+    // Item details are the same for every user and may be a few seconds old.
+    private static final CacheControl ITEM_CACHE = CacheControl.maxAge(Duration.ofSeconds(5)).cachePrivate();
+    private static final Duration DEFAULT_AVAILABILITY_RANGE = Duration.ofDays(30);
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public ResponseEntity<List<ItemDto>> getItemsByOwnerId(@RequestHeader(HEADER_USER_ID) Long userId) {
+    public ResponseEntity<List<ItemDto>> getItemsByOwnerId(@RequestHeader(HEADER_USER_ID) Long userId,
+                                                           WebRequest request) {
         log.info("Getting item by owner id {}", userId);
+        // The version is read before the items, so the list sent with it is never older than the tag.
+        String eTag = ETags.of(itemService.getBookingsVersion(userId));
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(OWNER_ITEMS_CACHE)
+                    .varyBy(HEADER_USER_ID)
+                    .build();
+        }
         List<ItemDto> items = itemService.getBookings(userId);
-        return ResponseEntity.ok(items);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(OWNER_ITEMS_CACHE)
+                .varyBy(HEADER_USER_ID)
+                .body(items);
     }
 
+    /**
+     * A matching {@code If-None-Match} is answered from a version lookup, before the item, its comments and stats
+     * are read from the caches or the database.
+     */
     @GetMapping("/{itemId}")
     public ResponseEntity<ItemDto> getItem(@RequestHeader(HEADER_USER_ID) Long userId,
-                                           @PathVariable Long itemId) {
+                                           @PathVariable Long itemId,
+                                           WebRequest request) {
         log.info("Getting item by id {}", itemId);
+        // Read before the item, as for the owner list; without one the item is missing and reading it says so.
+        String version = itemService.getItemVersion(itemId);
+        String eTag = version == null ? null : ETags.of(version);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(ITEM_CACHE)
+                    .build();
+        }
         ItemDto item = itemService.getItem(itemId);
-        return ResponseEntity.ok(item);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(ITEM_CACHE)
+                .body(item);
+    }
+
+    /**
+     * Busy and free intervals of the item, by default for the next 30 days. Only approved bookings make it busy,
+     * so a booking fitting a free interval is not refused as overlapping.
+     */
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<ItemAvailabilityDto> getAvailability(
+            @RequestHeader(HEADER_USER_ID) Long userId,
+            @PathVariable Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Getting availability of item {} from {} to {}", itemId, from, to);
+        LocalDateTime start = from != null ? from : LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime end = to != null ? to : start.plus(DEFAULT_AVAILABILITY_RANGE);
+        return ResponseEntity.ok(itemService.getAvailability(itemId, start, end));
     }
 
     @PostMapping
+    @RateLimited("item-create")
     public ResponseEntity<ItemDto> create(
             @RequestHeader(HEADER_USER_ID) Long userId,
             @Valid @RequestBody ItemDto itemDto) {
@@ -44,10 +118,31 @@ public class ItemController {
         return ResponseEntity.ok(createdItem);
     }
 
+    /**
+     * Imports a JSON array, NDJSON or CSV upload and answers with NDJSON progress lines as chunks are stored.
+     */
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE, ItemImportFormat.CSV_VALUE})
+    @RateLimited("item-import")
+    public ResponseEntity<StreamingResponseBody> importItems(@RequestHeader(HEADER_USER_ID) Long userId,
+                                                             @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType type,
+                                                             HttpServletRequest request) {
+        log.info("Importing items of owner {}", userId);
+        ItemImportFormat format = ItemImportFormat.of(type);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> itemService.importItems(userId, format, request.getInputStream(), writeLine(out)));
+    }
+
+    /**
+     * Every match unless {@code size} is given, as before paging was added.
+     */
     @GetMapping("/search")
-    public ResponseEntity<List<ItemDto>> search(@RequestParam String text) {
+    public ResponseEntity<List<ItemDto>> search(@RequestParam String text,
+                                                @RequestParam(defaultValue = "0") int from,
+                                                @RequestParam(required = false) Integer size) {
         log.info("Searching for items that match {}", text);
-        List<ItemDto> searchResults = itemService.searchItems(text);
+        List<ItemDto> searchResults = itemService.searchItems(text, from, size);
         return ResponseEntity.ok(searchResults);
     }
 
@@ -71,10 +166,25 @@ public class ItemController {
     }
 
     @PostMapping("/{itemId}/comment")
+    @RateLimited("comment-create")
     public ResponseEntity<CommentDto> addComment(@RequestHeader(HEADER_USER_ID) Long userId,
                                                  @PathVariable Long itemId,
                                                  @Valid @RequestBody CommentCreateDto commentDto) {
         CommentDto addedComment = itemService.addComment(itemId, userId, commentDto);
         return ResponseEntity.ok(addedComment);
     }
-}
\ No newline at end of file
+
+    private Consumer<ItemImportProgress> writeLine(OutputStream out) {
+        return progress -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(progress));
+                out.write('\n');
+                if (progress.getImported() != null) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
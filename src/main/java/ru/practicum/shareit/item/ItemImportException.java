@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+
+/**
+ * The upload cannot be read past {@link #getRow()}; the rows before it have been handed over already.
+ */
+@Getter
+public class ItemImportException extends RuntimeException {
+    private final long row;
+
+    public ItemImportException(long row, String message) {
+        super(message);
+        this.row = row;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item;
+
+import jakarta.validation.ValidationException;
+import org.springframework.http.MediaType;
+
+/**
+ * Upload formats of {@code POST /items/import}, chosen by the request content type.
+ */
+public enum ItemImportFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(MediaType.parseMediaType("text/csv"));
+
+    public static final String CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    ItemImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public static ItemImportFormat of(MediaType contentType) {
+        for (ItemImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(contentType)) {
+                return format;
+            }
+        }
+        throw new ValidationException("Unsupported import content type " + contentType);
+    }
+}
@@ -0,0 +1,159 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an item upload one row at a time, so only the current row is held in memory.
+ * Rows are numbered from 1; a row that cannot be read is handed over with its error instead of the item.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemImportReader {
+    private static final List<String> CSV_COLUMNS = List.of("name", "description", "available");
+
+    private final ObjectMapper objectMapper;
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void row(long row, ItemDto item, String error);
+    }
+
+    /**
+     * Fails with {@link ItemImportException} when the rest of the upload cannot be read.
+     */
+    public void read(InputStream input, ItemImportFormat format, RowHandler handler) throws IOException {
+        switch (format) {
+            case JSON -> readJsonArray(input, handler);
+            case NDJSON -> readNdjson(input, handler);
+            case CSV -> readCsv(input, handler);
+        }
+    }
+
+    private void readJsonArray(InputStream input, RowHandler handler) throws IOException {
+        long row = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ItemImportException(0, "Expected a JSON array of items");
+            }
+            // Each element is read as a tree first, so a row of the wrong shape does not lose the parser position.
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                row++;
+                JsonNode node = parser.readValueAsTree();
+                toItem(row, node, handler);
+            }
+        } catch (JsonProcessingException e) {
+            throw new ItemImportException(row + 1, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private void toItem(long row, JsonNode node, RowHandler handler) {
+        if (node == null || !node.isObject()) {
+            handler.row(row, null, "Expected a JSON object");
+            return;
+        }
+        try {
+            handler.row(row, objectMapper.treeToValue(node, ItemDto.class), null);
+        } catch (JsonProcessingException e) {
+            handler.row(row, null, "Malformed item: " + e.getOriginalMessage());
+        }
+    }
+
+    private void readNdjson(InputStream input, RowHandler handler) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long row = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            try {
+                toItem(row, objectMapper.readTree(line), handler);
+            } catch (JsonProcessingException e) {
+                handler.row(row, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(InputStream input, RowHandler handler) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        List<String> columns = parseCsvLine(header.strip().toLowerCase());
+        int[] positions = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = columns.indexOf(CSV_COLUMNS.get(i));
+            if (positions[i] < 0) {
+                throw new ItemImportException(0, "CSV header must name the columns " + CSV_COLUMNS);
+            }
+        }
+        long row = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            List<String> fields = parseCsvLine(line);
+            if (fields == null || fields.size() != columns.size()) {
+                handler.row(row, null, "Expected " + columns.size() + " CSV fields");
+                continue;
+            }
+            handler.row(row, ItemDto.builder()
+                    .name(fields.get(positions[0]))
+                    .description(fields.get(positions[1]))
+                    .available(fields.get(positions[2]))
+                    .build(), null);
+        }
+    }
+
+    /**
+     * Splits one RFC 4180 line; quoted fields may contain commas and doubled quotes but not line breaks.
+     * Returns null for an unterminated quote.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -11,17 +11,37 @@ import java.util.List;
 
 @Mapper(componentModel = "spring")
 public interface ItemMapper {
+    @Mapping(target = "requestId", source = "request.id")
+    @Mapping(target = "lastBooking", ignore = true)
+    @Mapping(target = "nextBooking", ignore = true)
+    @Mapping(target = "comments", ignore = true)
+    // The entity carries no stats, they are read from item_stats and cached apart.
+    @Mapping(target = "commentCount", ignore = true)
+    @Mapping(target = "bookingCount", ignore = true)
+    @Mapping(target = "rentalCount", ignore = true)
+    @Mapping(target = "lastRented", ignore = true)
     ItemDto toItemDto(Item item);
 
     @Mapping(target = "id", source = "item.id")
+    @Mapping(target = "version", source = "item.version")
+    @Mapping(target = "requestId", source = "item.request.id")
     @Mapping(target = "lastBooking", source = "lastBooking.start")
     @Mapping(target = "nextBooking", source = "nextBooking.start")
     @Mapping(target = "comments", source = "comments")
+    @Mapping(target = "commentCount", ignore = true)
+    @Mapping(target = "bookingCount", ignore = true)
+    @Mapping(target = "rentalCount", ignore = true)
+    @Mapping(target = "lastRented", ignore = true)
     ItemDto toItemDto(Item item, Booking lastBooking, Booking nextBooking, List<CommentDto> comments);
 
+    @Mapping(target = "comments", source = "comments")
+    ItemDto toItemDto(OwnerItemView view, List<CommentDto> comments);
+
     @Mapping(target = "id", source = "id")
     @Mapping(target = "description", source = "dto.description")
     @Mapping(target = "name", source = "dto.name")
     @Mapping(target = "available", source = "dto.available")
+    @Mapping(target = "request", source = "request")
+    @Mapping(target = "version", ignore = true)
     Item toItem(ItemDto dto, Long id, ItemRequest request, User owner);
 }
\ No newline at end of file
@@ -1,15 +1,126 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    /**
+     * Synchronization space of updates of {@code items.booking_version}. No entity maps the column, so they
+     * leave the cached items and the cached queries over {@code items} alone.
+     */
+    String BOOKING_VERSION_SPACE = "items_booking_version";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Item> findAllByOwnerId(Long id);
 
+    @Query("select i.id from Item i where i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Loads the item from the database and locks its row until the transaction ends, so concurrent updates
+     * of the item take turns and each advances its version from the one before.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    @Query(value = "select booking_version from items where id = :id", nativeQuery = true)
+    long findBookingVersion(@Param("id") Long id);
+
+    /**
+     * Moves the booking version of the item one step forward if it is still the given one.
+     * Blocks while another transaction holds the row and then compares against its committed version.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = BOOKING_VERSION_SPACE))
+    @Query(value = "update items set booking_version = booking_version + 1 " +
+            "where id = :id and booking_version = :version", nativeQuery = true)
+    int advanceBookingVersion(@Param("id") Long id, @Param("version") long version);
+
+    @Query(value = "select id as id, booking_version as bookingVersion from items where id in :ids", nativeQuery = true)
+    List<ItemBookingVersion> findBookingVersions(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = BOOKING_VERSION_SPACE))
+    @Query(value = "update items set booking_version = booking_version + 1 where id in :ids", nativeQuery = true)
+    int advanceBookingVersions(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "select i.id as id, i.version as version, i.name as name, i.description as description, " +
+            "i.is_available as available, i.request_id as requestId, lb.start_date as lastBooking, " +
+            "nb.start_date as nextBooking, cast(ic.comments as varchar) as comments, " +
+            "coalesce(s.comment_count, 0) as commentCount, coalesce(s.booking_count, 0) as bookingCount, " +
+            "coalesce(s.rental_count, 0) as rentalCount, s.last_rented as lastRented " +
+            "from items i " +
+            "left join item_stats s on s.item_id = i.id " +
+            "left join (" +
+            "  select ranked.item_id, ranked.start_date from (" +
+            "    select b.item_id, b.start_date," +
+            "      row_number() over (partition by b.item_id order by b.end_date desc) as rn" +
+            "    from bookings b join items bi on bi.id = b.item_id" +
+            "    where bi.owner_id = :ownerId and b.end_date < :now" +
+            "  ) ranked where ranked.rn = 1" +
+            ") lb on lb.item_id = i.id " +
+            "left join (" +
+            "  select b.item_id, min(b.start_date) as start_date" +
+            "  from bookings b join items bi on bi.id = b.item_id" +
+            "  where bi.owner_id = :ownerId and b.start_date > :now group by b.item_id" +
+            ") nb on nb.item_id = i.id " +
+            "left join (" +
+            "  select c.item_id, json_arrayagg(json_object('id' value c.id, 'text' value c.text," +
+            "    'authorName' value u.name, 'created' value c.created) order by c.created) as comments" +
+            "  from comments c join items ci on ci.id = c.item_id join users u on u.id = c.author_id" +
+            "  where ci.owner_id = :ownerId group by c.item_id" +
+            ") ic on ic.item_id = i.id " +
+            "where i.owner_id = :ownerId " +
+            "order by i.id", nativeQuery = true)
+    List<OwnerItemView> findOwnerItemViews(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    /**
+     * Everything {@link #findOwnerItemViews} depends on in a few index reads: the versions of the owner's items,
+     * their stats, comments and bookings, and how many bookings have ended or are still to start by {@code now}.
+     * Changes when one of its rows is inserted, updated or deleted; renaming a comment author does not change it.
+     */
+    @Query(value = "select concat_ws(':', count(*), max(i.id), sum(i.version), " +
+            "sum(s.comment_count), sum(s.booking_count), sum(s.rental_count), max(s.last_rented), " +
+            "(select count(*) from comments c join items ci on ci.id = c.item_id where ci.owner_id = :ownerId), " +
+            "(select max(c.id) from comments c join items ci on ci.id = c.item_id where ci.owner_id = :ownerId), " +
+            "(select count(*) from bookings b where b.item_owner_id = :ownerId), " +
+            "(select max(b.id) from bookings b where b.item_owner_id = :ownerId), " +
+            "(select count(*) from bookings b where b.item_owner_id = :ownerId and b.end_date < :now), " +
+            "(select count(*) from bookings b where b.item_owner_id = :ownerId and b.start_date > :now)) " +
+            "from items i left join item_stats s on s.item_id = i.id " +
+            "where i.owner_id = :ownerId", nativeQuery = true)
+    String findOwnerItemsVersion(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    /**
+     * Everything a single item response depends on in a few index reads: the version of the item, its stats and
+     * its latest comment, which is counted in the stats only once its event is delivered. Null for a missing item.
+     */
+    @Query(value = "select concat_ws(':', i.version, s.comment_count, s.booking_count, s.rental_count, " +
+            "s.last_rented, (select max(c.id) from comments c where c.item_id = i.id)) " +
+            "from items i left join item_stats s on s.item_id = i.id " +
+            "where i.id = :id", nativeQuery = true)
+    String findItemVersion(@Param("id") Long id);
+
     @Query("select i from Item i where i.available is true " +
             "and (upper(i.name) like upper(concat('%',:text,'%')) " +
             "or upper(i.description) like upper(concat('%',:text,'%')))")
     List<Item> searchAvailableItemsByText(String text);
+
+    @Query("select i.id as id, i.name as name, i.description as description from Item i " +
+            "where i.available is true and i.id > :afterId order by i.id")
+    List<ItemSearchDocument> findSearchDocuments(@Param("afterId") Long afterId, Pageable pageable);
 }
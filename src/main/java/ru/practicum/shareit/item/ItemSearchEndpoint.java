@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Exposes the item search index as {@code /actuator/itemsearch}; a POST rebuilds it from the database.
+ * Served on the management port only, see {@code management.server.*}.
+ */
+@Component
+@Endpoint(id = "itemsearch")
+@RequiredArgsConstructor
+public class ItemSearchEndpoint {
+    private final ItemSearchIndex itemSearchIndex;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return Map.of("ready", itemSearchIndex.isReady(), "items", itemSearchIndex.size());
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        return Map.of("ready", itemSearchIndex.isReady(), "items", itemSearchIndex.rebuild());
+    }
+}
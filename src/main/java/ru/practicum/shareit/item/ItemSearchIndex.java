@@ -0,0 +1,350 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.AfterCommit;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over the names and descriptions of available items.
+ * Words are case-folded and their trigrams are indexed, so every query word matches
+ * as a substring of some indexed word. Like the {@code LIKE '%text%'} query it stands in for,
+ * a hit must also contain the whole text, case aside, in its name or description.
+ * Name matches rank above description matches.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int GRAM = 3;
+    private static final int REBUILD_BATCH = 1000;
+    private static final int NAME_SCORE = 4;
+    private static final int DESCRIPTION_SCORE = 1;
+    private static final int EXACT_BONUS = 2;
+    private static final Comparator<Map.Entry<Long, Integer>> RANKING =
+            Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private List<Consumer<Index>> pending;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void indexAfterCommit(Item item) {
+        Long id = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = item.isAvailable();
+        AfterCommit.run(() -> apply(idx -> {
+            if (available) {
+                idx.put(id, name, description);
+            } else {
+                idx.remove(id);
+            }
+        }));
+    }
+
+    public void removeAfterCommit(Long itemId) {
+        AfterCommit.run(() -> apply(idx -> idx.remove(itemId)));
+    }
+
+    /**
+     * Returns ids of matching items ordered by descending relevance, then by id; all of them from {@code from} on
+     * when {@code size} is null.
+     */
+    public List<Long> search(String text, int from, Integer size) {
+        List<String> tokens = tokenize(text);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(tokens, fold(text), from, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database. Changes committed meanwhile are replayed on the new index.
+     */
+    public int rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                throw new IllegalStateException("Search index rebuild is already running");
+            }
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index rebuilt = new Index();
+        try {
+            long afterId = 0;
+            List<ItemSearchDocument> batch;
+            do {
+                batch = itemRepository.findSearchDocuments(afterId, PageRequest.of(0, REBUILD_BATCH));
+                for (ItemSearchDocument doc : batch) {
+                    rebuilt.put(doc.getId(), doc.getName(), doc.getDescription());
+                    afterId = doc.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pending.forEach(op -> op.accept(rebuilt));
+            pending = null;
+            index = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Item search index rebuilt with {} items", rebuilt.docs.size());
+        return rebuilt.docs.size();
+    }
+
+    private void apply(Consumer<Index> op) {
+        lock.writeLock().lock();
+        try {
+            op.accept(index);
+            if (pending != null) {
+                pending.add(op);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATORS.split(fold(text)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static String fold(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private record Doc(String name, String description, String[] nameTerms, String[] descriptionTerms) {
+        boolean contains(String text) {
+            return name.contains(text) || description.contains(text);
+        }
+    }
+
+    private static final class Index {
+        private final Map<Long, Doc> docs = new HashMap<>();
+        private final Field names = new Field();
+        private final Field descriptions = new Field();
+
+        void put(Long id, String name, String description) {
+            remove(id);
+            docs.put(id, new Doc(fold(name), fold(description),
+                    names.add(id, tokenize(name)), descriptions.add(id, tokenize(description))));
+        }
+
+        void remove(Long id) {
+            Doc doc = docs.remove(id);
+            if (doc != null) {
+                names.remove(id, doc.nameTerms());
+                descriptions.remove(id, doc.descriptionTerms());
+            }
+        }
+
+        List<Long> search(List<String> tokens, String text, int from, Integer size) {
+            Map<Long, Integer> scores = null;
+            for (String token : tokens) {
+                Map<Long, Integer> tokenScores = new HashMap<>();
+                descriptions.collect(token, DESCRIPTION_SCORE, tokenScores);
+                names.collect(token, NAME_SCORE, tokenScores);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + tokenScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            // Every word matched; with several words or separators the text itself must appear too.
+            if (tokens.size() > 1 || !tokens.getFirst().equals(text)) {
+                scores.keySet().removeIf(id -> !docs.get(id).contains(text));
+            }
+            // Keep only the best from + size hits instead of sorting every match.
+            int limit = size == null ? scores.size() : (int) Math.min((long) from + size, scores.size());
+            PriorityQueue<Map.Entry<Long, Integer>> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                top.add(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Long> ranked = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                ranked.add(top.poll().getKey());
+            }
+            Collections.reverse(ranked);
+            return ranked.subList(Math.min(from, ranked.size()), ranked.size());
+        }
+    }
+
+    private static final class Field {
+        private final Map<String, PostingList> postings = new HashMap<>();
+        private final Map<String, Set<String>> termsByGram = new HashMap<>();
+
+        String[] add(long id, List<String> terms) {
+            String[] canonical = new String[terms.size()];
+            for (int i = 0; i < canonical.length; i++) {
+                String term = terms.get(i);
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    list = new PostingList(term);
+                    postings.put(term, list);
+                    for (String gram : grams(term)) {
+                        termsByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+                    }
+                }
+                list.add(id);
+                canonical[i] = list.term;
+            }
+            return canonical;
+        }
+
+        void remove(long id, String[] terms) {
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                list.remove(id);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                    for (String gram : grams(term)) {
+                        Set<String> gramTerms = termsByGram.get(gram);
+                        gramTerms.remove(term);
+                        if (gramTerms.isEmpty()) {
+                            termsByGram.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+
+        void collect(String token, int score, Map<Long, Integer> scores) {
+            for (String term : matchingTerms(token)) {
+                int termScore = term.equals(token) ? score + EXACT_BONUS : score;
+                postings.get(term).forEach(id -> scores.merge(id, termScore, Math::max));
+            }
+        }
+
+        private Collection<String> matchingTerms(String token) {
+            if (token.length() < GRAM) {
+                // Too short for a trigram lookup, the vocabulary is small enough to scan.
+                return postings.keySet().stream().filter(term -> term.contains(token)).toList();
+            }
+            Set<String> candidates = null;
+            for (String gram : grams(token)) {
+                Set<String> gramTerms = termsByGram.get(gram);
+                if (gramTerms == null) {
+                    return List.of();
+                }
+                if (candidates == null || gramTerms.size() < candidates.size()) {
+                    candidates = gramTerms;
+                }
+            }
+            return candidates.stream().filter(term -> term.contains(token)).toList();
+        }
+
+        private static Set<String> grams(String term) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i + GRAM <= term.length(); i++) {
+                grams.add(term.substring(i, i + GRAM));
+            }
+            return grams;
+        }
+    }
+
+    private static final class PostingList {
+        private final String term;
+        private long[] ids = new long[1];
+        private int size;
+
+        PostingList(String term) {
+            this.term = term;
+        }
+
+        void add(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void forEach(LongConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(ids[i]);
+            }
+        }
+    }
+}
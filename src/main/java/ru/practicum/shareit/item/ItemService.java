@@ -2,8 +2,15 @@ package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportProgress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public interface ItemService {
@@ -11,11 +18,32 @@ public interface ItemService {
 
     List<ItemDto> getBookings(Long ownerId);
 
+    /**
+     * Changes whenever {@link #getBookings} would answer differently.
+     */
+    String getBookingsVersion(Long ownerId);
+
     ItemDto getItem(Long itemId);
 
+    /**
+     * Changes whenever {@link #getItem} would answer differently; null for a missing item.
+     */
+    String getItemVersion(Long itemId);
+
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
     ItemDto createItem(ItemDto itemDto, Long userId);
 
-    List<ItemDto> searchItems(String text);
+    /**
+     * Imports the items of an upload in chunks, reporting rejected rows and running totals to {@code progress}.
+     */
+    void importItems(Long ownerId, ItemImportFormat format, InputStream input,
+                     Consumer<ItemImportProgress> progress) throws IOException;
+
+    /**
+     * Available items matching {@code text}, best first; all of them from {@code from} on when {@code size} is null.
+     */
+    List<ItemDto> searchItems(String text, int from, Integer size);
 
     ItemDto updateItem(ItemDto itemDto, Long userId);
 
@@ -1,33 +1,78 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.common.CacheConfig;
+import ru.practicum.shareit.event.CommentAdded;
+import ru.practicum.shareit.event.OutboxPublisher;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentCreateDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportProgress;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed("shareit.service")
 public class ItemServiceImpl implements ItemService {
+    private static final TypeReference<List<CommentDto>> COMMENT_LIST = new TypeReference<>() {
+    };
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+    private static final int MAX_NAME_LENGTH = 30;
+    private static final int MAX_DESCRIPTION_LENGTH = 400;
+    private static final Duration MAX_AVAILABILITY_RANGE = Duration.ofDays(366);
+
     private final ItemRepository repository;
     private final UserRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemCache itemCache;
+    private final UserCache userCache;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ObjectMapper objectMapper;
+    private final ItemImportReader itemImportReader;
+    private final ItemStatsRecorder itemStatsRecorder;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public List<ItemDto> getItemsByOwnerId(Long userId) {
@@ -37,75 +82,130 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public List<ItemDto> getBookings(Long ownerId) {
-        List<Item> items = repository.findAllByOwnerId(ownerId);
-
-        if (items.isEmpty()) {
-            return List.of();
-        }
-
-        LocalDateTime now = LocalDateTime.now();
-
-        Map<Long, Booking> lastBookings = bookingRepository.findLastBookingsByOwner(ownerId, now)
-                .stream().collect(Collectors.toMap(b -> b.getItem().getId(), b -> b));
-        Map<Long, Booking> nextBookings = bookingRepository.findNextBookingsByOwner(ownerId, now)
-                .stream().collect(Collectors.toMap(b -> b.getItem().getId(), b -> b));
-
-        List<Comment> comments = commentRepository.findByItemOwnerId(ownerId);
+        return repository.findOwnerItemViews(ownerId, LocalDateTime.now()).stream()
+                .map(view -> itemMapper.toItemDto(view, parseComments(view.getComments())))
+                .toList();
+    }
 
-        Map<Long, List<CommentDto>> commentsByItemId = comments.stream()
-                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
-                        Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())));
+    @Override
+    public String getBookingsVersion(Long ownerId) {
+        return repository.findOwnerItemsVersion(ownerId, LocalDateTime.now());
+    }
 
-        return items.stream()
-                .map(item -> {
-                    Long itemId = item.getId();
-                    List<CommentDto> commentsForItem = commentsByItemId.getOrDefault(itemId, List.of());
-                    return itemMapper.toItemDto(item, lastBookings.get(itemId), nextBookings.get(itemId), commentsForItem);
-                })
-                .collect(Collectors.toList());
+    @Override
+    public String getItemVersion(Long itemId) {
+        return repository.findItemVersion(itemId);
     }
 
     @Override
     public ItemDto getItem(Long itemId) {
-        List<CommentDto> comments = commentRepository.findByItemId(itemId).stream()
-                .map(commentMapper::toCommentDto)
-                .collect(Collectors.toList());;
-        Item item = repository.findById(itemId).orElseThrow(() ->
+        ItemDto item = itemCache.findById(itemId).orElseThrow(() ->
                 new ValidationException("Item not found"));
-        ItemDto itemDto = itemMapper.toItemDto(item);
-        itemDto.setComments(comments);
+        ItemDto.ItemDtoBuilder builder = item.toBuilder()
+                .comments(itemCache.findComments(itemId));
+        itemCache.findStats(itemId).ifPresent(stats -> builder
+                .commentCount(stats.getCommentCount())
+                .bookingCount(stats.getBookingCount())
+                .rentalCount(stats.getRentalCount())
+                .lastRented(stats.getLastRented()));
+        return builder.build();
+    }
 
-        return itemDto;
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Parameter from must be before to");
+        }
+        if (Duration.between(from, to).compareTo(MAX_AVAILABILITY_RANGE) > 0) {
+            throw new ValidationException("Availability can be asked for at most " + MAX_AVAILABILITY_RANGE.toDays()
+                    + " days at once");
+        }
+        itemCache.findById(itemId).orElseThrow(() -> new NotFoundException("Item not found"));
+        List<ItemAvailabilityDto.Interval> busy = new ArrayList<>();
+        List<ItemAvailabilityDto.Interval> free = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        for (BookingIntervalIndex.Busy interval : bookingIntervalIndex.findBusy(itemId, from, to)) {
+            if (freeFrom.isBefore(interval.start())) {
+                free.add(new ItemAvailabilityDto.Interval(freeFrom, interval.start()));
+            }
+            busy.add(new ItemAvailabilityDto.Interval(interval.start(), interval.end()));
+            freeFrom = interval.end();
+        }
+        if (freeFrom.isBefore(to)) {
+            free.add(new ItemAvailabilityDto.Interval(freeFrom, to));
+        }
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .busy(busy)
+                .free(free)
+                .build();
     }
 
     @Override
+    @Transactional
     public ItemDto createItem(ItemDto itemDto, Long userId) {
         if (itemDto.getAvailable().isBlank() || itemDto.getAvailable() == null) {
             throw new ValidationException("Available must not be blank or null");
         }
 
-        User owner = userRepository.findById(userId)
+        User owner = findUserReference(userId);
+        ItemRequest request = itemDto.getRequestId() == null ? null : findRequestReference(itemDto.getRequestId());
+        Item newItem = itemMapper.toItem(itemDto, null, request, owner);
+        Item savedItem = repository.save(newItem);
+        itemStatsRecorder.itemsCreated(List.of(savedItem.getId()));
+        itemSearchIndex.indexAfterCommit(savedItem);
+        return itemMapper.toItemDto(savedItem);
+    }
+
+    @Override
+    public void importItems(Long ownerId, ItemImportFormat format, InputStream input,
+                            Consumer<ItemImportProgress> progress) throws IOException {
+        userCache.findById(ownerId)
                 .orElseThrow(() -> new NotFoundException("User not found"));
-        Item newItem = itemMapper.toItem(itemDto, null, null, owner);
-        return itemMapper.toItemDto(repository.save(newItem));
+        ItemImport upload = new ItemImport(ownerId, progress);
+        try {
+            itemImportReader.read(input, format, upload::add);
+        } catch (ItemImportException e) {
+            upload.fail(e.getRow(), e.getMessage());
+        }
+        upload.finish();
     }
 
     @Override
-    public List<ItemDto> searchItems(String text) {
+    public List<ItemDto> searchItems(String text, int from, Integer size) {
         if (text == null || text.isBlank()) {
             return List.of();
         }
-        return repository.searchAvailableItemsByText(text).stream()
+        if (from < 0 || (size != null && size <= 0)) {
+            throw new ValidationException("Parameter from must not be negative and size must be positive");
+        }
+        if (!itemSearchIndex.isReady()) {
+            return repository.searchAvailableItemsByText(text).stream()
+                    .skip(from)
+                    .limit(size != null ? size : Long.MAX_VALUE)
+                    .map(itemMapper::toItemDto)
+                    .toList();
+        }
+
+        List<Long> ids = itemSearchIndex.search(text, from, size);
+        Map<Long, Item> itemsById = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
                 .map(itemMapper::toItemDto)
                 .toList();
     }
 
 
     @Override
+    @Transactional
     public ItemDto updateItem(ItemDto itemDto, Long userId) {
-        User owner = userRepository.findById(userId)
+        userCache.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found"));
-        Item oldItem = repository.findById(itemDto.getId())
+        Item oldItem = repository.findByIdForUpdate(itemDto.getId())
                 .orElseThrow(() -> new NotFoundException("Item not found"));
 
         if (itemDto.getName() != null && !itemDto.getName().equals(oldItem.getName())) {
@@ -119,22 +219,32 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null && Boolean.parseBoolean(itemDto.getAvailable()) != oldItem.isAvailable()) {
             oldItem.setAvailable(Boolean.parseBoolean(itemDto.getAvailable()));
         }
+        oldItem.setVersion(oldItem.getVersion() + 1);
+        itemSearchIndex.indexAfterCommit(oldItem);
         return itemMapper.toItemDto(oldItem);
     }
 
     @Override
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.ITEM_COMMENTS, key = "#itemId"),
+        @CacheEvict(cacheNames = CacheConfig.ITEM_STATS, key = "#itemId")
+    })
     public void deleteItem(Long userId, Long itemId) {
         Item item = repository.findById(itemId).orElseThrow(() ->
                 new NotFoundException("Item not found"));
         repository.delete(item);
+        bookingIntervalIndex.evictItemAfterCommit(itemId);
+        itemSearchIndex.removeAfterCommit(itemId);
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ITEM_COMMENTS, key = "#itemId")
     public CommentDto addComment(Long itemId, Long userId, CommentCreateDto createCommentDto) {
-        Item item = repository.findById(itemId)
+        itemCache.findById(itemId)
                 .orElseThrow(() -> new ValidationException("Item not found"));
+        Item item = repository.getReferenceById(itemId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ValidationException("User not found"));
 
@@ -146,6 +256,134 @@ public class ItemServiceImpl implements ItemService {
 
         Comment comment = commentMapper.toComment(createCommentDto, user, item, LocalDateTime.now());
         Comment savedComment = commentRepository.save(comment);
+        outboxPublisher.publish(new CommentAdded(savedComment.getId(), itemId, userId));
         return commentMapper.toCommentDto(savedComment);
     }
+
+    private static String validateImportRow(ItemDto dto) {
+        if (dto.getName() == null || dto.getName().isBlank()) {
+            return "Name must not be blank";
+        }
+        if (dto.getName().length() > MAX_NAME_LENGTH) {
+            return "Name must be at most " + MAX_NAME_LENGTH + " characters";
+        }
+        if (dto.getDescription() == null || dto.getDescription().isBlank()) {
+            return "Description must not be blank";
+        }
+        if (dto.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return "Description must be at most " + MAX_DESCRIPTION_LENGTH + " characters";
+        }
+        if (!"true".equalsIgnoreCase(dto.getAvailable()) && !"false".equalsIgnoreCase(dto.getAvailable())) {
+            return "Available must be true or false";
+        }
+        return null;
+    }
+
+    /**
+     * Rows of an upload waiting for their chunk. Each chunk is inserted in its own transaction as JDBC batches,
+     * so a failed chunk neither rolls back the chunks before it nor stops the rows after it. A chunk the database
+     * refuses is retried row by row, so only the offending rows fail.
+     */
+    private final class ItemImport {
+        private final Long ownerId;
+        private final Consumer<ItemImportProgress> progress;
+        private final List<Long> rows = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        private final List<Item> items = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        private long imported;
+        private long failed;
+
+        ItemImport(Long ownerId, Consumer<ItemImportProgress> progress) {
+            this.ownerId = ownerId;
+            this.progress = progress;
+        }
+
+        void add(long row, ItemDto dto, String error) {
+            if (error == null) {
+                error = validateImportRow(dto);
+            }
+            if (error != null) {
+                fail(row, error);
+                return;
+            }
+            rows.add(row);
+            items.add(itemMapper.toItem(dto, null, null, null));
+            if (items.size() == IMPORT_CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void fail(long row, String error) {
+            failed++;
+            progress.accept(ItemImportProgress.rowFailed(row, error));
+        }
+
+        void flush() {
+            if (items.isEmpty()) {
+                return;
+            }
+            try {
+                insert(items);
+                imported += items.size();
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("Import of items of owner {} failed for rows {}-{}, retrying them one by one", ownerId,
+                        rows.getFirst(), rows.getLast(), e);
+                insertOneByOne();
+            }
+            rows.clear();
+            items.clear();
+            progress.accept(ItemImportProgress.totals(imported, failed, false));
+        }
+
+        private void insertOneByOne() {
+            for (int i = 0; i < items.size(); i++) {
+                Item item = items.get(i);
+                // The rolled back chunk left its ids on the items.
+                item.setId(null);
+                try {
+                    insert(List.of(item));
+                    imported++;
+                } catch (DataAccessException | TransactionException e) {
+                    fail(rows.get(i), e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        private void insert(List<Item> chunk) {
+            transactionTemplate.executeWithoutResult(tx -> {
+                User owner = userRepository.getReferenceById(ownerId);
+                chunk.forEach(item -> item.setOwner(owner));
+                repository.saveAll(chunk);
+                itemStatsRecorder.itemsCreated(chunk.stream().map(Item::getId).toList());
+                chunk.forEach(itemSearchIndex::indexAfterCommit);
+            });
+        }
+
+        void finish() {
+            flush();
+            log.info("Imported {} items of owner {}, {} rows failed", imported, ownerId, failed);
+            progress.accept(ItemImportProgress.totals(imported, failed, true));
+        }
+    }
+
+    private User findUserReference(Long userId) {
+        userCache.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+        return userRepository.getReferenceById(userId);
+    }
+
+    private ItemRequest findRequestReference(Long requestId) {
+        return itemRequestRepository.findById(requestId)
+                .orElseThrow(() -> new NotFoundException("Request not found"));
+    }
+
+    private List<CommentDto> parseComments(String json) {
+        if (json == null) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, COMMENT_LIST);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed comments of owner item view", e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Counters of an item. Written only by the statements of {@link ItemStatsRepository}.
+ */
+@Entity
+@Immutable
+@Table(name = "item_stats")
+@Getter
+@NoArgsConstructor
+public class ItemStats {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "comment_count")
+    private long commentCount;
+
+    @Column(name = "booking_count")
+    private long bookingCount;
+
+    /**
+     * Approved bookings.
+     */
+    @Column(name = "rental_count")
+    private long rentalCount;
+
+    /**
+     * Start of the latest approved booking.
+     */
+    @Column(name = "last_rented")
+    private LocalDateTime lastRented;
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Exposes {@code /actuator/itemstats}; a POST recounts the stats of all items from the database.
+ * Served on the management port only, see {@code management.server.*}. One recount runs at a time.
+ */
+@Component
+@Endpoint(id = "itemstats")
+@RequiredArgsConstructor
+public class ItemStatsEndpoint {
+    private final ItemStatsRecorder itemStatsRecorder;
+
+    @WriteOperation
+    public Map<String, Object> reconcile() {
+        return Map.of("items", itemStatsRecorder.reconcile());
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.CacheConfig;
+import ru.practicum.shareit.event.BookingApproved;
+import ru.practicum.shareit.event.BookingCreated;
+import ru.practicum.shareit.event.CommentAdded;
+import ru.practicum.shareit.event.DomainEvent;
+import ru.practicum.shareit.event.DomainEventHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps {@link ItemStats} in step with comments and bookings. The stats row is created with the item, counters
+ * follow the outbox events, one statement per item and counter for a whole batch. The cached stats of an item
+ * are evicted once the batch commits.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemStatsRecorder implements DomainEventHandler {
+    private static final int RECOUNT_BATCH = 1000;
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private final ItemStatsRepository repository;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    public void itemsCreated(Collection<Long> itemIds) {
+        repository.createAll(itemIds);
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        Map<Long, Long> comments = new HashMap<>();
+        Map<Long, Long> bookings = new HashMap<>();
+        List<Long> approvedBookingIds = new ArrayList<>();
+        Set<Long> itemIds = new HashSet<>();
+        for (DomainEvent event : events) {
+            switch (event) {
+                case CommentAdded comment -> {
+                    comments.merge(comment.itemId(), 1L, Long::sum);
+                    itemIds.add(comment.itemId());
+                }
+                case BookingCreated booking -> {
+                    bookings.merge(booking.itemId(), 1L, Long::sum);
+                    itemIds.add(booking.itemId());
+                }
+                case BookingApproved booking -> {
+                    approvedBookingIds.add(booking.bookingId());
+                    itemIds.add(booking.itemId());
+                }
+            }
+        }
+        comments.forEach(repository::addComments);
+        bookings.forEach(repository::addBookings);
+        for (int from = 0; from < approvedBookingIds.size(); from += IN_CHUNK_SIZE) {
+            repository.addRentals(approvedBookingIds.subList(from,
+                    Math.min(from + IN_CHUNK_SIZE, approvedBookingIds.size())));
+        }
+        evict(itemIds);
+    }
+
+    /**
+     * Recounts the stats of every item from scratch, one transaction per batch of item ids.
+     * A counter changed while its batch is recounted may be off until the next run.
+     */
+    @Scheduled(cron = "${shareit.item-stats.reconcile-cron:-}")
+    public int reconcile() {
+        // A second run would only repeat the same full-table recount alongside the first.
+        if (!reconciling.compareAndSet(false, true)) {
+            throw new IllegalStateException("Item stats reconcile is already running");
+        }
+        try {
+            long maxId = repository.findMaxItemId();
+            int items = 0;
+            for (long afterId = 0; afterId < maxId; afterId += RECOUNT_BATCH) {
+                long from = afterId;
+                items += transactionTemplate.execute(tx -> repository.recount(from, from + RECOUNT_BATCH));
+            }
+            cacheManager.getCache(CacheConfig.ITEM_STATS).clear();
+            log.info("Item stats recounted for {} items", items);
+            return items;
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    private void evict(Collection<Long> itemIds) {
+        Cache cache = cacheManager.getCache(CacheConfig.ITEM_STATS);
+        itemIds.forEach(cache::evict);
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface ItemStatsRepository extends JpaRepository<ItemStats, Long> {
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.item_stats"))
+    @Query(value = "insert into item_stats (item_id) select id from items where id in :itemIds", nativeQuery = true)
+    int createAll(@Param("itemIds") Collection<Long> itemIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.item_stats"))
+    @Query(value = "update item_stats set comment_count = comment_count + :count where item_id = :itemId",
+            nativeQuery = true)
+    int addComments(@Param("itemId") Long itemId, @Param("count") long count);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.item_stats"))
+    @Query(value = "update item_stats set booking_count = booking_count + :count where item_id = :itemId",
+            nativeQuery = true)
+    int addBookings(@Param("itemId") Long itemId, @Param("count") long count);
+
+    /**
+     * Counts the given bookings, which have just been approved, as rentals of their items.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.item_stats"))
+    @Query(value = "merge into item_stats s " +
+            "using (select b.item_id, count(*) as rentals, max(b.start_date) as last_start " +
+            "  from bookings b where b.id in :bookingIds group by b.item_id) a " +
+            "on s.item_id = a.item_id " +
+            "when matched then update set rental_count = s.rental_count + a.rentals, " +
+            "  last_rented = case when s.last_rented is null or s.last_rented < a.last_start " +
+            "    then a.last_start else s.last_rented end", nativeQuery = true)
+    int addRentals(@Param("bookingIds") Collection<Long> bookingIds);
+
+    /**
+     * Recounts the items with ids in {@code (afterId, toId]} from their comments and bookings.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.item_stats"))
+    @Query(value = "merge into item_stats s " +
+            "using (select i.id as item_id, " +
+            "  (select count(*) from comments c where c.item_id = i.id) as comment_count, " +
+            "  (select count(*) from bookings b where b.item_id = i.id) as booking_count, " +
+            "  (select count(*) from bookings b where b.item_id = i.id and b.status = 'APPROVED') as rental_count, " +
+            "  (select max(b.start_date) from bookings b where b.item_id = i.id and b.status = 'APPROVED') " +
+            "    as last_rented " +
+            "  from items i where i.id > :afterId and i.id <= :toId) a " +
+            "on s.item_id = a.item_id " +
+            "when matched then update set comment_count = a.comment_count, booking_count = a.booking_count, " +
+            "  rental_count = a.rental_count, last_rented = a.last_rented " +
+            "when not matched then insert (item_id, comment_count, booking_count, rental_count, last_rented) " +
+            "  values (a.item_id, a.comment_count, a.booking_count, a.rental_count, a.last_rented)",
+            nativeQuery = true)
+    int recount(@Param("afterId") long afterId, @Param("toId") long toId);
+
+    @Query(value = "select coalesce(max(id), 0) from items", nativeQuery = true)
+    long findMaxItemId();
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item;
+
+import java.time.LocalDateTime;
+
+public interface OwnerItemView {
+    Long getId();
+
+    Long getVersion();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getRequestId();
+
+    LocalDateTime getLastBooking();
+
+    LocalDateTime getNextBooking();
+
+    /**
+     * JSON array of the item's comments, {@code null} when there are none.
+     */
+    String getComments();
+
+    Long getCommentCount();
+
+    Long getBookingCount();
+
+    Long getRentalCount();
+
+    LocalDateTime getLastRented();
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,8 +19,18 @@ public class ItemDto {
     private String name;
     private String description;
     private String available;
+    private Long requestId;
 
     private LocalDateTime lastBooking;
     private LocalDateTime nextBooking;
     private List<CommentDto> comments;
+
+    private Long commentCount;
+    private Long bookingCount;
+    private Long rentalCount;
+    private LocalDateTime lastRented;
+
+    // Version of the item row, the ETag of the item is derived from it.
+    @JsonIgnore
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One line of the {@code POST /items/import} response: a rejected row, or the running totals
+ * written after every chunk and, with {@code done}, once at the end.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemImportProgress {
+    private Long row;
+    private String error;
+    private Long imported;
+    private Long failed;
+    private Boolean done;
+
+    public static ItemImportProgress rowFailed(long row, String error) {
+        return new ItemImportProgress(row, error, null, null, null);
+    }
+
+    public static ItemImportProgress totals(long imported, long failed, boolean done) {
+        return new ItemImportProgress(null, null, imported, failed, done ? Boolean.TRUE : null);
+    }
+}
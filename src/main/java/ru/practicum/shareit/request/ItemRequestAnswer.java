@@ -0,0 +1,7 @@
+package ru.practicum.shareit.request;
+
+/**
+ * Item offered in answer to a request, read from the {@code items(request_id)} index alone.
+ */
+public record ItemRequestAnswer(Long requestId, Long itemId, String name, Long ownerId) {
+}
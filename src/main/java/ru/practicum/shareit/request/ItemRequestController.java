@@ -1,12 +1,66 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
 
-/**
- * TODO Sprint add-item-requests.
- */
+import java.util.List;
+
+@Slf4j
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
 public class ItemRequestController {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    private static final String DEFAULT_PAGE_SIZE = "20";
+
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    public ResponseEntity<ItemRequestDto> createRequest(@RequestHeader(HEADER_USER_ID) Long userId,
+                                                        @Valid @RequestBody ItemRequestCreateDto requestDto) {
+        log.info("Create item request by user {}", userId);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(itemRequestService.createRequest(userId, requestDto));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ItemRequestDto>> getOwnRequests(@RequestHeader(HEADER_USER_ID) Long userId,
+                                                               @RequestParam(required = false) Integer size,
+                                                               @RequestParam(required = false) String cursor) {
+        log.info("Get item requests of user {}", userId);
+        return toResponse(itemRequestService.getOwnRequests(userId, size, cursor));
+    }
+
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestDto>> getOtherRequests(@RequestHeader(HEADER_USER_ID) Long userId,
+                                                                 @RequestParam(defaultValue = "0") int from,
+                                                                 @RequestParam(defaultValue = DEFAULT_PAGE_SIZE)
+                                                                 int size,
+                                                                 @RequestParam(required = false) String cursor) {
+        log.info("Get item requests of users other than {}", userId);
+        return toResponse(itemRequestService.getOtherRequests(userId, from, size, cursor));
+    }
+
+    @GetMapping("/{requestId}")
+    public ResponseEntity<ItemRequestDto> getRequest(@RequestHeader(HEADER_USER_ID) Long userId,
+                                                     @PathVariable Long requestId) {
+        log.info("Get item request {}", requestId);
+        return ResponseEntity.ok(itemRequestService.getRequest(userId, requestId));
+    }
+
+    private ResponseEntity<List<ItemRequestDto>> toResponse(ItemRequestPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(HEADER_NEXT_CURSOR, page.getNextCursor());
+        }
+        return response.body(page.getRequests());
+    }
 }
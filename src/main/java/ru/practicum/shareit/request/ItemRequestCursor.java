@@ -0,0 +1,36 @@
+package ru.practicum.shareit.request;
+
+import jakarta.validation.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in the {@code created desc, id desc} request order.
+ */
+public record ItemRequestCursor(LocalDateTime created, Long id) {
+    public static final ItemRequestCursor FIRST =
+            new ItemRequestCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+    public static ItemRequestCursor of(ItemRequestView request) {
+        return new ItemRequestCursor(request.created(), request.id());
+    }
+
+    public static ItemRequestCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('_');
+            return new ItemRequestCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((created + "_" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
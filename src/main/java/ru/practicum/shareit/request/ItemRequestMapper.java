@@ -0,0 +1,24 @@
+package ru.practicum.shareit.request;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface ItemRequestMapper {
+    @Mapping(target = "items", expression = "java(java.util.List.of())")
+    ItemRequestDto toItemRequestDto(ItemRequest request);
+
+    ItemRequestDto toItemRequestDto(ItemRequestView view, List<ItemRequestDto.Answer> items);
+
+    @Mapping(target = "id", source = "itemId")
+    ItemRequestDto.Answer toAnswer(ItemRequestAnswer answer);
+
+    @Mapping(target = "id", ignore = true)
+    ItemRequest toItemRequest(ItemRequestCreateDto dto, User requester, LocalDateTime created);
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    String VIEW = "select new ru.practicum.shareit.request.ItemRequestView(r.id, r.description, r.created) " +
+            "from ItemRequest r ";
+
+    String AFTER_CURSOR = "and (r.created < :cursorCreated or (r.created = :cursorCreated and r.id < :cursorId)) " +
+            "order by r.created desc, r.id desc";
+
+    @Query(VIEW + "where r.id = :id")
+    Optional<ItemRequestView> findViewById(@Param("id") Long id);
+
+    @Query(VIEW + "where r.requester.id = :requesterId " + AFTER_CURSOR)
+    List<ItemRequestView> findPageByRequester(@Param("requesterId") Long requesterId,
+                                              @Param("cursorCreated") LocalDateTime cursorCreated,
+                                              @Param("cursorId") Long cursorId,
+                                              Pageable pageable);
+
+    @Query(VIEW + "where r.requester.id <> :userId " + AFTER_CURSOR)
+    List<ItemRequestView> findPageOfOthers(@Param("userId") Long userId,
+                                           @Param("cursorCreated") LocalDateTime cursorCreated,
+                                           @Param("cursorId") Long cursorId,
+                                           Pageable pageable);
+
+    /**
+     * Items answering any of the requests, so a page of requests gets its answers in one query.
+     */
+    @Query("select new ru.practicum.shareit.request.ItemRequestAnswer(i.request.id, i.id, i.name, i.owner.id) " +
+            "from Item i where i.request.id in :requestIds order by i.id")
+    List<ItemRequestAnswer> findAnswers(@Param("requestIds") Collection<Long> requestIds);
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+
+public interface ItemRequestService {
+    ItemRequestDto createRequest(Long userId, ItemRequestCreateDto requestDto);
+
+    /**
+     * Requests of the user, newest first, with the items answering them.
+     */
+    ItemRequestPage getOwnRequests(Long userId, Integer size, String cursor);
+
+    /**
+     * Requests of all other users, newest first, with the items answering them.
+     */
+    ItemRequestPage getOtherRequests(Long userId, int from, int size, String cursor);
+
+    ItemRequestDto getRequest(Long userId, Long requestId);
+}
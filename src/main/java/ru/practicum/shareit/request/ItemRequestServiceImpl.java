@@ -0,0 +1,112 @@
+package ru.practicum.shareit.request;
+
+import jakarta.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.OffsetPageRequest;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ItemRequestServiceImpl implements ItemRequestService {
+    // Bounds IN lists, padded by Hibernate to the next power of two.
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private final ItemRequestRepository repository;
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ItemRequestMapper itemRequestMapper;
+
+    @Override
+    @Transactional
+    public ItemRequestDto createRequest(Long userId, ItemRequestCreateDto requestDto) {
+        User requester = findUserReference(userId);
+        ItemRequest request = itemRequestMapper.toItemRequest(requestDto, requester, LocalDateTime.now());
+        return itemRequestMapper.toItemRequestDto(repository.save(request));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemRequestPage getOwnRequests(Long userId, Integer size, String cursor) {
+        findUserReference(userId);
+        ItemRequestCursor after = cursor == null ? ItemRequestCursor.FIRST : ItemRequestCursor.decode(cursor);
+        List<ItemRequestView> requests = repository.findPageByRequester(userId, after.created(), after.id(),
+                toPageable(0, size, cursor));
+        return toPage(requests, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemRequestPage getOtherRequests(Long userId, int from, int size, String cursor) {
+        findUserReference(userId);
+        ItemRequestCursor after = cursor == null ? ItemRequestCursor.FIRST : ItemRequestCursor.decode(cursor);
+        List<ItemRequestView> requests = repository.findPageOfOthers(userId, after.created(), after.id(),
+                toPageable(from, size, cursor));
+        return toPage(requests, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemRequestDto getRequest(Long userId, Long requestId) {
+        findUserReference(userId);
+        ItemRequestView request = repository.findViewById(requestId)
+                .orElseThrow(() -> new NotFoundException("Request not found"));
+        return withAnswers(List.of(request)).get(0);
+    }
+
+    private Pageable toPageable(int from, Integer size, String cursor) {
+        if (from < 0 || (size != null && size <= 0)) {
+            throw new ValidationException("Parameter from must not be negative and size must be positive");
+        }
+        if (size == null) {
+            return Pageable.unpaged();
+        }
+        // A cursor already marks the start of the page, so the offset only applies to the first one.
+        return new OffsetPageRequest(cursor == null ? from : 0, size);
+    }
+
+    private ItemRequestPage toPage(List<ItemRequestView> requests, Integer size) {
+        String nextCursor = size != null && requests.size() == size
+                ? ItemRequestCursor.of(requests.get(requests.size() - 1)).encode()
+                : null;
+        return new ItemRequestPage(withAnswers(requests), nextCursor);
+    }
+
+    /**
+     * Loads the answers of all requests at once rather than per request.
+     */
+    private List<ItemRequestDto> withAnswers(List<ItemRequestView> requests) {
+        List<Long> ids = requests.stream().map(ItemRequestView::id).toList();
+        List<ItemRequestAnswer> answers = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            answers.addAll(repository.findAnswers(ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()))));
+        }
+        Map<Long, List<ItemRequestDto.Answer>> answersByRequest = answers.stream()
+                .collect(Collectors.groupingBy(ItemRequestAnswer::requestId,
+                        Collectors.mapping(itemRequestMapper::toAnswer, Collectors.toList())));
+        return requests.stream()
+                .map(request -> itemRequestMapper.toItemRequestDto(request,
+                        answersByRequest.getOrDefault(request.id(), List.of())))
+                .toList();
+    }
+
+    private User findUserReference(Long userId) {
+        userCache.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+        return userRepository.getReferenceById(userId);
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.request;
+
+import java.time.LocalDateTime;
+
+/**
+ * Request row of a feed page, read without the requester.
+ */
+public record ItemRequestView(Long id, String description, LocalDateTime created) {
+}
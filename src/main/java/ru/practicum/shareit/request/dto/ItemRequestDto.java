@@ -1,14 +1,12 @@
 package ru.practicum.shareit.request.dto;
 
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -16,10 +14,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class ItemRequestDto {
     private Long id;
-    @NotBlank
     private String description;
-    @NotNull
-    private User requester;
-    @NotNull
     private LocalDateTime created;
-}
\ No newline at end of file
+    private List<Answer> items;
+
+    public record Answer(Long id, String name, Long ownerId) {
+    }
+}
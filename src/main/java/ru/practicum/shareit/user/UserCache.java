@@ -0,0 +1,25 @@
+package ru.practicum.shareit.user;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.Optional;
+
+/**
+ * Users by id, from the Hibernate second-level cache once loaded, which Hibernate keeps in step with its writes.
+ * Callers that only need a user to exist should use it together with {@link UserRepository#getReferenceById}.
+ * Loads run on the primary unless they join a read-only transaction; rows read on the replica are not cached.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCache {
+    private final UserRepository repository;
+    private final UserMapper userMapper;
+
+    @Transactional
+    public Optional<UserDto> findById(Long id) {
+        return repository.findById(id).map(userMapper::toUserDto);
+    }
+}
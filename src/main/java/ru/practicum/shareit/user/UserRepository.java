@@ -1,7 +1,26 @@
 package ru.practicum.shareit.user;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmailIgnoreCase(String email);
-}
\ No newline at end of file
+
+    /**
+     * Deletes the user. The database deletes their items, requests, bookings and comments along, so the cached
+     * users, items and requests are dropped with it.
+     */
+    @Modifying
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.users"),
+        @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.items"),
+        @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.requests")
+    })
+    @Query(value = "delete from users where id = :id", nativeQuery = true)
+    int deleteCascading(@Param("id") Long id);
+}
@@ -2,8 +2,14 @@ package ru.practicum.shareit.user;
 
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
+import ru.practicum.shareit.common.CacheConfig;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchIndex;
 import ru.practicum.shareit.user.dto.UserDto;
 import java.util.List;
 
@@ -12,6 +18,10 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
     private final UserRepository repository;
     private final UserMapper userMapper;
+    private final UserCache userCache;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
 
     @Override
     public List<UserDto> getAll() {
@@ -27,10 +37,14 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDto getUserById(Long id) {
-        return userMapper.toUserDto(repository.getById(id));
+        return userCache.findById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("User wit id %s is not found", id)));
     }
 
     @Override
+    @Transactional
+    // Comment lists carry author names.
+    @CacheEvict(cacheNames = CacheConfig.ITEM_COMMENTS, allEntries = true)
     public UserDto updateUser(Long id, UserDto userDto) {
         User user = repository.findById(id)
                 .orElseThrow(() -> new NotFoundException(String.format("User wit id %s is not found", id)));
@@ -49,7 +63,14 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.ITEM_COMMENTS, CacheConfig.ITEM_STATS}, allEntries = true)
     public void deleteUser(Long id) {
-        repository.deleteById(id);
+        // The items go with the user in SQL, so they are taken out of the search index by id.
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(id);
+        repository.deleteCascading(id);
+        itemIds.forEach(itemSearchIndex::removeAfterCommit);
+        // Cascaded item, booking and comment deletes are not tracked per item, so drop whole caches and index.
+        bookingIntervalIndex.clearAfterCommit();
     }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+-- Phase of a booking in time, see BookingPhase. Advanced by BookingLifecycle, set here for existing bookings.
+ALTER TABLE bookings ADD COLUMN phase varchar(8) DEFAULT 'UPCOMING' NOT NULL;
+
+UPDATE bookings SET phase = CASE
+    WHEN end_date <= LOCALTIMESTAMP THEN 'FINISHED'
+    WHEN start_date <= LOCALTIMESTAMP THEN 'ACTIVE'
+    ELSE 'UPCOMING' END;
+
+-- Requests that started without an answer expire, as BookingLifecycle expires them from now on.
+UPDATE bookings SET status = 'EXPIRED' WHERE status = 'WAITING' AND start_date <= LOCALTIMESTAMP;
+
+-- CURRENT, PAST and FUTURE lists: booker_id or item_owner_id = ? and phase = ?, keyset on (start_date, id).
+-- Not covering: every phase move rewrites their entries, and a page reads only its own rows from the table.
+CREATE INDEX bookings_booker_phase_idx ON bookings (booker_id, phase, start_date, id);
+CREATE INDEX bookings_owner_phase_idx ON bookings (item_owner_id, phase, start_date, id);
+
+-- Bookings due to start or to finish, see BookingRepository.startBookings and finishBookings.
+CREATE INDEX bookings_phase_start_idx ON bookings (phase, start_date, id);
+CREATE INDEX bookings_phase_end_idx ON bookings (phase, end_date, id);
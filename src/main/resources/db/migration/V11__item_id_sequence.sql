@@ -0,0 +1,3 @@
+-- Item ids come from items_seq (V5), handed out by Hibernate in blocks of 50, so the column keeps no
+-- identity of its own that a plain insert could take an id from.
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
@@ -1,23 +1,17 @@
-DROP TABLE IF EXISTS users CASCADE;
-DROP TABLE IF EXISTS request CASCADE;
-DROP TABLE IF EXISTS items CASCADE;
-DROP TABLE IF EXISTS bookings CASCADE;
-DROP TABLE IF EXISTS comments CASCADE;
-
-CREATE TABLE IF NOT EXISTS users (
+CREATE TABLE users (
     id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name varchar(30) NOT NULL,
     email varchar(100) NOT NULL UNIQUE
 );
 
-CREATE TABLE IF NOT EXISTS requests (
+CREATE TABLE requests (
     id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     description varchar(400) NOT NULL,
     requestor_id int NOT NULL REFERENCES users(id) ON DELETE CASCADE,
     created timestamp without time zone
 );
 
-CREATE TABLE IF NOT EXISTS items (
+CREATE TABLE items (
     id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name varchar(30) NOT NULL,
     description varchar(400) NOT NULL,
@@ -26,7 +20,7 @@ CREATE TABLE IF NOT EXISTS items (
     request_id bigint REFERENCES requests(id)
 );
 
-CREATE TABLE IF NOT EXISTS bookings (
+CREATE TABLE bookings (
     id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     start_date timestamp without time zone,
     end_date timestamp without time zone,
@@ -35,7 +29,7 @@ CREATE TABLE IF NOT EXISTS bookings (
     status varchar(8) NOT NULL
 );
 
-CREATE TABLE IF NOT EXISTS comments (
+CREATE TABLE comments (
     id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     text varchar(400) NOT NULL,
     item_id int NOT NULL REFERENCES items(id) ON DELETE CASCADE,
@@ -0,0 +1,17 @@
+-- Composite indexes for the query shapes of BookingRepository, ItemRepository and CommentRepository.
+-- Trailing columns make them covering on PostgreSQL and H2 alike, which lack a common INCLUDE syntax.
+
+-- Booker lists: booker_id = ?, keyset on (start_date, id) descending, status and end_date filtered in the index.
+CREATE INDEX bookings_booker_start_idx ON bookings (booker_id, start_date, id, status, end_date, item_id);
+
+-- Owner lists and last/next booking per item: item_id = ? or item_id IN (...), ordered by start_date.
+CREATE INDEX bookings_item_start_idx ON bookings (item_id, start_date, id, status, end_date, booker_id);
+
+-- Overlap checks and approved intervals: item_id = ? AND status = ? AND end_date > ? AND start_date < ?.
+CREATE INDEX bookings_item_status_end_idx ON bookings (item_id, status, end_date, start_date, id);
+
+-- Items of an owner, joined to bookings and comments.
+CREATE INDEX items_owner_idx ON items (owner_id, id);
+
+-- Comments of an item in creation order.
+CREATE INDEX comments_item_created_idx ON comments (item_id, created, author_id);
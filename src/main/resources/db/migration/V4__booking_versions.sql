@@ -0,0 +1,6 @@
+-- Optimistic lock of a booking, see Booking.version.
+ALTER TABLE bookings ADD COLUMN version bigint DEFAULT 0 NOT NULL;
+
+-- Advanced by every approval of a booking of the item, so two approvals of the same item
+-- cannot both miss each other's overlap, see BookingServiceImpl.updateBookingStatus.
+ALTER TABLE items ADD COLUMN booking_version bigint DEFAULT 0 NOT NULL;
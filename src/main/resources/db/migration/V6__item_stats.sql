@@ -0,0 +1,16 @@
+-- Counters of an item maintained together with the rows they count, see ItemStatsRecorder.
+CREATE TABLE item_stats (
+    item_id bigint PRIMARY KEY REFERENCES items(id) ON DELETE CASCADE,
+    comment_count bigint DEFAULT 0 NOT NULL,
+    booking_count bigint DEFAULT 0 NOT NULL,
+    rental_count bigint DEFAULT 0 NOT NULL,
+    last_rented timestamp without time zone
+);
+
+INSERT INTO item_stats (item_id, comment_count, booking_count, rental_count, last_rented)
+SELECT i.id,
+    (SELECT count(*) FROM comments c WHERE c.item_id = i.id),
+    (SELECT count(*) FROM bookings b WHERE b.item_id = i.id),
+    (SELECT count(*) FROM bookings b WHERE b.item_id = i.id AND b.status = 'APPROVED'),
+    (SELECT max(b.start_date) FROM bookings b WHERE b.item_id = i.id AND b.status = 'APPROVED')
+FROM items i;
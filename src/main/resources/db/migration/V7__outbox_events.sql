@@ -0,0 +1,9 @@
+-- Domain events written in the transaction of the change that caused them, see OutboxDispatcher.
+CREATE TABLE outbox_events (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    type varchar(64) NOT NULL,
+    payload varchar(4000) NOT NULL,
+    created timestamp without time zone NOT NULL,
+    attempts int DEFAULT 0 NOT NULL,
+    last_error varchar(1000)
+);
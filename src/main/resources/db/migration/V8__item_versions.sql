@@ -0,0 +1,3 @@
+-- Advanced by every change of the item row, so clients revalidate item responses with a cheap lookup,
+-- see ItemServiceImpl.updateItem, which advances it on the row locked by ItemRepository.findByIdForUpdate.
+ALTER TABLE items ADD COLUMN version bigint DEFAULT 0 NOT NULL;
@@ -0,0 +1,10 @@
+-- Keyset feeds of item requests, newest first, and the items answering a page of requests.
+
+-- Own requests: requestor_id = ?, keyset on (created, id) descending.
+CREATE INDEX requests_requestor_created_idx ON requests (requestor_id, created, id);
+
+-- Requests of other users: keyset on (created, id) descending, requestor_id <> ? filtered in the index.
+CREATE INDEX requests_created_idx ON requests (created, id, requestor_id);
+
+-- Answers of a page of requests: request_id IN (...), covering the item summary.
+CREATE INDEX items_request_idx ON items (request_id, id, name, owner_id);
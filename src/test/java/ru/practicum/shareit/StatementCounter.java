@@ -0,0 +1,45 @@
+package ru.practicum.shareit;
+
+import org.hibernate.stat.Statistics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements a request issues, so an N+1 regression fails the build.
+ */
+public class StatementCounter {
+    private final MockMvc mockMvc;
+    private final Statistics statistics;
+
+    public StatementCounter(MockMvc mockMvc, TestData testData) {
+        this.mockMvc = mockMvc;
+        this.statistics = testData.statistics();
+    }
+
+    public void assertStatements(MockHttpServletRequestBuilder request, long expected) throws Exception {
+        assertStatements(request, status().is2xxSuccessful(), expected);
+    }
+
+    public void assertStatements(MockHttpServletRequestBuilder request, ResultMatcher result, long expected)
+            throws Exception {
+        statistics.clear();
+        mockMvc.perform(request).andExpect(result);
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL statements for %s", request.buildRequest(null).getRequestURI())
+                .isEqualTo(expected);
+    }
+
+    /**
+     * Performs the request and returns the tag of its response.
+     */
+    public String eTag(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
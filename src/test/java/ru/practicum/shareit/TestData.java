@@ -0,0 +1,97 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Seeds rows with fixed ids by plain SQL, past the services and their caches, and removes everything the tests
+ * wrote afterwards. Import it with {@code @Import(TestData.class)} and call {@link #clear()} after each test.
+ * Test classes keep their ids apart: {@code BookingIntervalIndex} remembers the approvals it has seen.
+ */
+@TestComponent
+public class TestData {
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public TestData(JdbcTemplate jdbcTemplate, CacheManager cacheManager,
+                    EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public void insertUser(long id, String name) {
+        jdbcTemplate.update("insert into users (id, name, email) values (?, ?, ?)", id, name, name + id + "@mail.ru");
+    }
+
+    /**
+     * An available cordless drill.
+     */
+    public void insertItem(long id, long ownerId) {
+        insertItem(id, ownerId, "drill", "cordless drill", null);
+    }
+
+    public void insertItem(long id, long ownerId, String name, String description, Long requestId) {
+        jdbcTemplate.update("insert into items (id, name, description, is_available, owner_id, request_id) " +
+                "values (?, ?, ?, true, ?, ?)", id, name, description, ownerId, requestId);
+    }
+
+    public void insertItemStats(long itemId) {
+        jdbcTemplate.update("insert into item_stats (item_id) values (?)", itemId);
+    }
+
+    public void insertRequest(long id, long requesterId, String description, LocalDateTime created) {
+        jdbcTemplate.update("insert into requests (id, description, requestor_id, created) values (?, ?, ?, ?)",
+                id, description, requesterId, created);
+    }
+
+    /**
+     * A booking in phase {@code UPCOMING}, as it was before its dates passed.
+     */
+    public void insertBooking(long id, long itemId, long ownerId, long bookerId, LocalDateTime start,
+                              LocalDateTime end, String status) {
+        jdbcTemplate.update("insert into bookings (id, start_date, end_date, item_id, item_owner_id, booker_id, " +
+                "status) values (?, ?, ?, ?, ?, ?, ?)", id, start, end, itemId, ownerId, bookerId, status);
+    }
+
+    public void insertComment(long id, long itemId, long authorId, LocalDateTime created) {
+        jdbcTemplate.update("insert into comments (id, text, item_id, author_id, created) values (?, 'nice', ?, ?, ?)",
+                id, itemId, authorId, created);
+    }
+
+    /**
+     * Hibernate statistics, on in every profile; {@code getPrepareStatementCount()} counts the statements run.
+     */
+    public Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Deletes the rows of every table, children first, and drops the cached copies of them.
+     */
+    public void clear() {
+        jdbcTemplate.update("delete from outbox_events");
+        jdbcTemplate.update("delete from comments");
+        jdbcTemplate.update("delete from bookings");
+        jdbcTemplate.update("delete from item_stats");
+        jdbcTemplate.update("delete from items");
+        jdbcTemplate.update("delete from requests");
+        jdbcTemplate.update("delete from users");
+        clearCaches();
+    }
+
+    /**
+     * Drops the Spring caches and the second-level cache, so the next read goes to the database.
+     */
+    public void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.getCache().evictAll();
+    }
+}
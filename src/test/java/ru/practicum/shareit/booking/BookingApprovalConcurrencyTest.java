@@ -0,0 +1,146 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.TestData;
+import ru.practicum.shareit.exception.NotFoundException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Approves overlapping WAITING bookings from many threads at once, each booking twice,
+ * and checks that no two approved bookings of an item overlap.
+ */
+@SpringBootTest
+@Import(TestData.class)
+class BookingApprovalConcurrencyTest {
+    private static final long OWNER_ID = 1;
+    private static final int ITEMS = 4;
+    private static final int SLOTS_PER_ITEM = 4;
+    private static final int BOOKINGS_PER_SLOT = 8;
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TestData testData;
+
+    private final List<Long> bookingIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        testData.insertUser(OWNER_ID, "owner");
+        for (long userId = OWNER_ID + 1; userId <= OWNER_ID + BOOKINGS_PER_SLOT; userId++) {
+            testData.insertUser(userId, "booker");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.clear();
+    }
+
+    @Test
+    void concurrentApprovalsNeverDoubleBook() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                // Fresh items every round, BookingIntervalIndex still remembers the approvals of the previous one.
+                insertWaitingBookings(round);
+                Map<String, AtomicInteger> outcomes = approveConcurrently(executor);
+
+                // Every slot of every item ends up with exactly one approved booking, the rest are refused.
+                assertThat(approvedOverlaps()).isZero();
+                assertThat(approvedCount()).isEqualTo(ITEMS * SLOTS_PER_ITEM);
+                assertThat(outcomes).containsOnlyKeys("approved", "refused");
+                assertThat(outcomes.get("approved")).hasValue(ITEMS * SLOTS_PER_ITEM);
+                jdbcTemplate.update("delete from bookings");
+                bookingIds.clear();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void insertWaitingBookings(int round) {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        long bookingId = round * 1000L;
+        for (long itemId = round * ITEMS + 1; itemId <= (round + 1) * ITEMS; itemId++) {
+            testData.insertItem(itemId, OWNER_ID);
+            for (int slot = 0; slot < SLOTS_PER_ITEM; slot++) {
+                for (int i = 0; i < BOOKINGS_PER_SLOT; i++) {
+                    // Bookings of a slot overlap each other, slots of an item do not.
+                    LocalDateTime start = base.plusDays(slot * 3L).plusHours(i);
+                    testData.insertBooking(++bookingId, itemId, OWNER_ID, OWNER_ID + 1 + i, start, start.plusDays(1),
+                            "WAITING");
+                    bookingIds.add(bookingId);
+                }
+            }
+        }
+    }
+
+    private Map<String, AtomicInteger> approveConcurrently(ExecutorService executor) throws Exception {
+        Map<String, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int copy = 0; copy < 2; copy++) {
+            for (Long bookingId : bookingIds) {
+                Callable<Void> approve = () -> {
+                    start.await();
+                    String outcome;
+                    try {
+                        bookingService.updateBookingStatus(OWNER_ID, bookingId, true);
+                        outcome = "approved";
+                    } catch (NotFoundException e) {
+                        outcome = "refused";
+                    } catch (RuntimeException e) {
+                        outcome = e.getClass().getSimpleName();
+                    }
+                    outcomes.computeIfAbsent(outcome, o -> new AtomicInteger()).incrementAndGet();
+                    return null;
+                };
+                futures.add(executor.submit(approve));
+            }
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        return outcomes;
+    }
+
+    private int approvedOverlaps() {
+        return jdbcTemplate.queryForObject("select count(*) from bookings a join bookings b " +
+                "on a.item_id = b.item_id and a.id < b.id " +
+                "and a.start_date < b.end_date and b.start_date < a.end_date " +
+                "where a.status = 'APPROVED' and b.status = 'APPROVED'", Integer.class);
+    }
+
+    private int approvedCount() {
+        return jdbcTemplate.queryForObject("select count(*) from bookings where status = 'APPROVED'",
+                Integer.class);
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.StatementCounter;
+import ru.practicum.shareit.TestData;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each booking endpoint issues. The dataset has several items, bookers and
+ * bookings per item, so a per-row lazy load shows up as extra statements.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class BookingEndpointQueryCountTest {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final long OWNER_ID = 1;
+    private static final long BOOKER_ID = 2;
+    private static final int ITEMS = 3;
+    private static final int BOOKINGS_PER_ITEM = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestData testData;
+
+    private StatementCounter statements;
+
+    @BeforeEach
+    void setUp() {
+        statements = new StatementCounter(mockMvc, testData);
+        LocalDateTime now = LocalDateTime.now();
+        testData.insertUser(OWNER_ID, "owner");
+        for (long userId = BOOKER_ID; userId < BOOKER_ID + BOOKINGS_PER_ITEM; userId++) {
+            testData.insertUser(userId, "booker");
+        }
+        long bookingId = 1;
+        for (long itemId = 1; itemId <= ITEMS; itemId++) {
+            testData.insertItem(itemId, OWNER_ID);
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                LocalDateTime start = now.plusDays(i * 2L - 3);
+                testData.insertBooking(bookingId++, itemId, OWNER_ID, BOOKER_ID + i, start, start.plusDays(1),
+                        "WAITING");
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.clear();
+    }
+
+    @Test
+    void bookingsOfBooker() throws Exception {
+        statements.assertStatements(get("/bookings").header(HEADER_USER_ID, BOOKER_ID), 2);
+    }
+
+    @Test
+    void cachedBookingsOfBooker() throws Exception {
+        mockMvc.perform(get("/bookings").header(HEADER_USER_ID, BOOKER_ID)).andExpect(status().isOk());
+        statements.assertStatements(get("/bookings").header(HEADER_USER_ID, BOOKER_ID), 1);
+    }
+
+    @Test
+    void bookingsOfOwner() throws Exception {
+        statements.assertStatements(get("/bookings/owner").header(HEADER_USER_ID, OWNER_ID), 2);
+    }
+
+    @Test
+    void bookingById() throws Exception {
+        statements.assertStatements(get("/bookings/1").header(HEADER_USER_ID, BOOKER_ID), 2);
+    }
+
+    @Test
+    void unchangedBookingById() throws Exception {
+        // Booking 3 starts tomorrow, so it can still be approved.
+        String eTag = statements.eTag(get("/bookings/3").header(HEADER_USER_ID, OWNER_ID));
+        // The version lookup only, not the booking.
+        statements.assertStatements(get("/bookings/3").header(HEADER_USER_ID, OWNER_ID)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag), status().isNotModified(), 1);
+        mockMvc.perform(patch("/bookings/3").param("approved", "true").header(HEADER_USER_ID, OWNER_ID))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/bookings/3").header(HEADER_USER_ID, OWNER_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void approveBooking() throws Exception {
+        statements.assertStatements(patch("/bookings/3").param("approved", "false")
+                .header(HEADER_USER_ID, OWNER_ID), 2);
+    }
+
+    @Test
+    void rejectBookingsInBulk() throws Exception {
+        statements.assertStatements(patch("/bookings").param("approved", "false").header(HEADER_USER_ID, OWNER_ID)
+                .contentType(MediaType.APPLICATION_JSON).content("[4, 8, 12]"), 2);
+    }
+
+    @Test
+    void approveBookingsInBulk() throws Exception {
+        statements.assertStatements(patch("/bookings").param("approved", "true").header(HEADER_USER_ID, OWNER_ID)
+                .contentType(MediaType.APPLICATION_JSON).content("[4, 8, 12]"), 6);
+    }
+}
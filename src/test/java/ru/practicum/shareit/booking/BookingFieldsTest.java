@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.TestData;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bookings are returned with item and booker summaries, and {@code fields} selects their top-level properties.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class BookingFieldsTest {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final long OWNER_ID = 711;
+    private static final long BOOKER_ID = 712;
+    private static final long ITEM_ID = 711;
+    private static final long BOOKING_ID = 711;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        testData.insertUser(OWNER_ID, "owner");
+        testData.insertUser(BOOKER_ID, "booker");
+        testData.insertItem(ITEM_ID, OWNER_ID);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        testData.insertBooking(BOOKING_ID, ITEM_ID, OWNER_ID, BOOKER_ID, start, start.plusDays(1), "WAITING");
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.clear();
+    }
+
+    @Test
+    void returnsItemAndBookerSummaries() throws Exception {
+        JsonNode booking = getBooking(null);
+
+        assertThat(names(booking)).containsExactlyInAnyOrder("id", "start", "end", "item", "booker", "status");
+        assertThat(names(booking.get("item"))).containsExactlyInAnyOrder("id", "name");
+        assertThat(booking.get("item").get("id").asLong()).isEqualTo(ITEM_ID);
+        assertThat(booking.get("item").get("name").asText()).isEqualTo("drill");
+        assertThat(names(booking.get("booker"))).containsExactly("id");
+        assertThat(booking.get("booker").get("id").asLong()).isEqualTo(BOOKER_ID);
+        assertThat(booking.get("status").asText()).isEqualTo("WAITING");
+    }
+
+    @Test
+    void selectsTopLevelFields() throws Exception {
+        assertThat(names(getBooking("id,status"))).containsExactlyInAnyOrder("id", "status");
+
+        JsonNode list = read(mockMvc.perform(get("/bookings").param("fields", "id", "end")
+                        .header(HEADER_USER_ID, BOOKER_ID))
+                .andExpect(status().isOk())
+                .andReturn());
+        assertThat(names(list.get(0))).containsExactlyInAnyOrder("id", "end");
+    }
+
+    @Test
+    void selectsNestedSummaryAsAWhole() throws Exception {
+        JsonNode booking = getBooking("item");
+        assertThat(names(booking)).containsExactly("item");
+        assertThat(names(booking.get("item"))).containsExactlyInAnyOrder("id", "name");
+
+        // Only top-level names select anything, a path into a summary is not one.
+        assertThat(names(getBooking("id,item.name"))).containsExactly("id");
+    }
+
+    @Test
+    void ignoresUnknownFields() throws Exception {
+        assertThat(names(getBooking("id,owner,email"))).containsExactly("id");
+        assertThat(names(getBooking("unknown"))).isEmpty();
+    }
+
+    @Test
+    void selectsFieldsOfStreamedBookings() throws Exception {
+        MvcResult started = mockMvc.perform(get("/bookings/owner").param("fields", "id,booker")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .header(HEADER_USER_ID, OWNER_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String line = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().trim();
+
+        JsonNode booking = objectMapper.readTree(line);
+        assertThat(names(booking)).containsExactlyInAnyOrder("id", "booker");
+        assertThat(booking.get("booker").get("id").asLong()).isEqualTo(BOOKER_ID);
+    }
+
+    private JsonNode getBooking(String fields) throws Exception {
+        MockHttpServletRequestBuilder request = get("/bookings/" + BOOKING_ID).header(HEADER_USER_ID, BOOKER_ID);
+        if (fields != null) {
+            request.param("fields", fields);
+        }
+        return read(mockMvc.perform(request).andExpect(status().isOk()).andReturn());
+    }
+
+    private JsonNode read(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private static List<String> names(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
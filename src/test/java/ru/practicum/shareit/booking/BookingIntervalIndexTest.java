@@ -0,0 +1,164 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingIntervalIndex.Busy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Merging of approved bookings into busy intervals, and changes that only apply once their transaction commits.
+ * Outside of a transaction changes apply right away.
+ */
+class BookingIntervalIndexTest {
+    private static final long ITEM_ID = 1;
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private BookingRepository repository;
+    private BookingIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(BookingRepository.class);
+        // Unsorted, with an overlapping pair (days 1-3 and 2-4) and a touching one (days 4-5).
+        when(repository.findIntervalsByItemIdAndStatus(ITEM_ID, BookingStatus.APPROVED)).thenReturn(List.of(
+                interval(10, 11), interval(2, 4), interval(1, 3), interval(4, 5), interval(7, 8)));
+        index = new BookingIntervalIndex(repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void mergesOverlappingAndTouchingBookings() {
+        assertThat(index.findBusy(ITEM_ID, day(0), day(20)))
+                .containsExactly(busy(1, 5), busy(7, 8), busy(10, 11));
+    }
+
+    @Test
+    void clipsToRange() {
+        assertThat(index.findBusy(ITEM_ID, day(2), day(7))).containsExactly(busy(2, 5));
+        assertThat(index.findBusy(ITEM_ID, day(5), day(7))).isEmpty();
+        assertThat(index.findBusy(ITEM_ID, day(8), day(10))).isEmpty();
+    }
+
+    @Test
+    void touchingIsNotOverlapping() {
+        assertThat(index.hasOverlap(ITEM_ID, day(5), day(7))).isFalse();
+        assertThat(index.hasOverlap(ITEM_ID, day(5), day(7).plusSeconds(1))).isTrue();
+        assertThat(index.hasOverlap(ITEM_ID, day(0), day(1).plusSeconds(1))).isTrue();
+        assertThat(index.hasOverlap(ITEM_ID, day(12), day(20))).isFalse();
+        verify(repository, times(1)).findIntervalsByItemIdAndStatus(ITEM_ID, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void addedBookingsAreMerged() {
+        index.findBusy(ITEM_ID, day(0), day(1));
+
+        index.addAfterCommit(ITEM_ID, day(6), day(7));
+        assertThat(index.findBusy(ITEM_ID, day(0), day(20)))
+                .containsExactly(busy(1, 5), busy(6, 8), busy(10, 11));
+
+        index.addAfterCommit(ITEM_ID, day(5), day(10));
+        assertThat(index.findBusy(ITEM_ID, day(0), day(20))).containsExactly(busy(1, 11));
+
+        index.addAfterCommit(ITEM_ID, day(12), day(13));
+        index.addAfterCommit(ITEM_ID, day(0).minusDays(1), day(0));
+        assertThat(index.findBusy(ITEM_ID, day(-5), day(20)))
+                .containsExactly(busy(-1, 0), busy(1, 11), busy(12, 13));
+    }
+
+    @Test
+    void addsApprovalOnlyAfterCommit() {
+        index.hasOverlap(ITEM_ID, day(0), day(1));
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.addAfterCommit(ITEM_ID, day(5), day(7));
+        assertThat(index.hasOverlap(ITEM_ID, day(6), day(7))).isFalse();
+
+        commit();
+        assertThat(index.hasOverlap(ITEM_ID, day(6), day(7))).isTrue();
+    }
+
+    @Test
+    void dropsApprovalOnRollback() {
+        index.hasOverlap(ITEM_ID, day(0), day(1));
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.addAfterCommit(ITEM_ID, day(5), day(7));
+        rollback();
+
+        assertThat(index.hasOverlap(ITEM_ID, day(6), day(7))).isFalse();
+    }
+
+    @Test
+    void reloadsItemEvictedAfterCommit() {
+        index.hasOverlap(ITEM_ID, day(0), day(1));
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.evictItemAfterCommit(ITEM_ID);
+        rollback();
+        index.hasOverlap(ITEM_ID, day(0), day(1));
+        verify(repository, times(1)).findIntervalsByItemIdAndStatus(ITEM_ID, BookingStatus.APPROVED);
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.evictItemAfterCommit(ITEM_ID);
+        commit();
+        index.hasOverlap(ITEM_ID, day(0), day(1));
+        verify(repository, times(2)).findIntervalsByItemIdAndStatus(ITEM_ID, BookingStatus.APPROVED);
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static void rollback() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    private static LocalDateTime day(int day) {
+        return DAY.plusDays(day);
+    }
+
+    private static Busy busy(int start, int end) {
+        return new Busy(day(start), day(end));
+    }
+
+    private static BookingInterval interval(int start, int end) {
+        return new BookingInterval() {
+            @Override
+            public Long getId() {
+                return (long) start;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return day(start);
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return day(end);
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.TestData;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bookings are started, finished and expired in batches, and state lists follow the persisted phase.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class BookingLifecycleTest {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final long OWNER_ID = 901;
+    private static final long BOOKER_ID = 902;
+    private static final long ITEM_ID = 901;
+    private static final int BATCH_SIZE = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private BookingLifecycle lifecycle;
+
+    @BeforeEach
+    void setUp() {
+        lifecycle = new BookingLifecycle(bookingRepository, transactionTemplate, new SimpleMeterRegistry(),
+                BATCH_SIZE, 10);
+        testData.insertUser(OWNER_ID, "owner");
+        testData.insertUser(BOOKER_ID, "booker");
+        testData.insertItem(ITEM_ID, OWNER_ID);
+        LocalDateTime now = LocalDateTime.now();
+        // Inserted as UPCOMING, as they were before their dates passed.
+        for (long id = 901; id <= 905; id++) {
+            insertBooking(id, now.minusDays(id - 890), now.minusDays(id - 891), "APPROVED");
+        }
+        insertBooking(906, now.minusHours(1), now.plusHours(1), "APPROVED");
+        insertBooking(907, now.minusHours(1), now.plusHours(1), "WAITING");
+        insertBooking(908, now.plusDays(1), now.plusDays(2), "WAITING");
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.clear();
+    }
+
+    @Test
+    void advancesPhasesInBatches() {
+        // Five past bookings are started and then finished, two at a time, plus the two current ones started.
+        assertThat(lifecycle.advance()).isEqualTo(12);
+        assertThat(lifecycle.advance()).isZero();
+
+        assertThat(phaseAndStatus(901)).isEqualTo("FINISHED APPROVED");
+        assertThat(phaseAndStatus(905)).isEqualTo("FINISHED APPROVED");
+        assertThat(phaseAndStatus(906)).isEqualTo("ACTIVE APPROVED");
+        assertThat(phaseAndStatus(907)).isEqualTo("ACTIVE EXPIRED");
+        assertThat(phaseAndStatus(908)).isEqualTo("UPCOMING WAITING");
+    }
+
+    @Test
+    void listsBookingsByPhase() throws Exception {
+        lifecycle.advance();
+
+        mockMvc.perform(get("/bookings").param("state", "PAST").header(HEADER_USER_ID, BOOKER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(901, 902, 903, 904, 905)));
+        mockMvc.perform(get("/bookings/owner").param("state", "CURRENT").header(HEADER_USER_ID, OWNER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(907, 906)));
+        mockMvc.perform(get("/bookings").param("state", "FUTURE").header(HEADER_USER_ID, BOOKER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(908)));
+        mockMvc.perform(get("/bookings").param("state", "WAITING").header(HEADER_USER_ID, BOOKER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(908)));
+    }
+
+    @Test
+    void startedBookingCanNotBeApproved() throws Exception {
+        // Not expired yet, the lifecycle has not run since it started.
+        mockMvc.perform(patch("/bookings/907").param("approved", "true").header(HEADER_USER_ID, OWNER_ID))
+                .andExpect(status().isNotFound());
+        Integer approved = transactionTemplate.execute(tx ->
+                bookingRepository.approveIfNoOverlap(907L, 0L, LocalDateTime.now()));
+
+        assertThat(approved).isZero();
+        assertThat(phaseAndStatus(907)).isEqualTo("UPCOMING WAITING");
+    }
+
+    @Test
+    void expiredBookingCanNotBeApproved() throws Exception {
+        lifecycle.advance();
+
+        mockMvc.perform(patch("/bookings/907").param("approved", "true").header(HEADER_USER_ID, OWNER_ID))
+                .andExpect(status().isNotFound());
+        assertThat(phaseAndStatus(907)).isEqualTo("ACTIVE EXPIRED");
+    }
+
+    private void insertBooking(long id, LocalDateTime start, LocalDateTime end, String status) {
+        testData.insertBooking(id, ITEM_ID, OWNER_ID, BOOKER_ID, start, end, status);
+    }
+
+    private String phaseAndStatus(long id) {
+        return jdbcTemplate.queryForObject("select concat(phase, ' ', status) from bookings where id = ?",
+                String.class, id);
+    }
+}
@@ -0,0 +1,174 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.TestData;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Booking lists page by from/size and by cursor, newest first, and stream as NDJSON.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class BookingPagingTest {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    private static final long OWNER_ID = 701;
+    private static final long BOOKER_ID = 702;
+    private static final long ITEM_ID = 701;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        testData.insertUser(OWNER_ID, "owner");
+        testData.insertUser(BOOKER_ID, "booker");
+        testData.insertItem(ITEM_ID, OWNER_ID);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        // Bookings 701-705 start a day apart, 706 at the same time as 705, so ties go by id.
+        for (long id = 701; id <= 705; id++) {
+            insertBooking(id, start.plusDays(id - 700));
+        }
+        insertBooking(706, start.plusDays(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.clear();
+    }
+
+    @Test
+    void pagesByFromAndSize() throws Exception {
+        mockMvc.perform(get("/bookings").param("from", "0").param("size", "2").header(HEADER_USER_ID, BOOKER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(706, 705)));
+        // The offset is a row, not a page: from=3 does not round down to the page starting at row 2.
+        mockMvc.perform(get("/bookings").param("from", "3").param("size", "2").header(HEADER_USER_ID, BOOKER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(703, 702)));
+        mockMvc.perform(get("/bookings/owner").param("from", "5").param("size", "10")
+                        .header(HEADER_USER_ID, OWNER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(701)))
+                .andExpect(header().doesNotExist(HEADER_NEXT_CURSOR));
+    }
+
+    @Test
+    void walksPagesByCursor() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/bookings/owner").param("size", "4").param("from", "1")
+                    .header(HEADER_USER_ID, OWNER_ID);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult page = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode bookings = objectMapper.readTree(page.getResponse().getContentAsString());
+            bookings.forEach(booking -> ids.add(booking.get("id").asInt()));
+            cursor = page.getResponse().getHeader(HEADER_NEXT_CURSOR);
+            pages++;
+        } while (cursor != null);
+
+        // from only skips rows of the first page, later pages start right after the cursor.
+        assertThat(ids).containsExactly(705, 704, 703, 702, 701);
+        assertThat(pages).isEqualTo(2);
+    }
+
+    @Test
+    void fullLastPageEndsWithEmptyPage() throws Exception {
+        MvcResult first = mockMvc.perform(get("/bookings").param("size", "3").header(HEADER_USER_ID, BOOKER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(706, 705, 704)))
+                .andReturn();
+        MvcResult second = mockMvc.perform(get("/bookings").param("size", "3")
+                        .param("cursor", first.getResponse().getHeader(HEADER_NEXT_CURSOR))
+                        .header(HEADER_USER_ID, BOOKER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(703, 702, 701)))
+                .andExpect(header().exists(HEADER_NEXT_CURSOR))
+                .andReturn();
+        mockMvc.perform(get("/bookings").param("size", "3")
+                        .param("cursor", second.getResponse().getHeader(HEADER_NEXT_CURSOR))
+                        .header(HEADER_USER_ID, BOOKER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().doesNotExist(HEADER_NEXT_CURSOR));
+    }
+
+    @Test
+    void rejectsInvalidPagingParameters() {
+        assertThatThrownBy(() -> bookingService.getBookingsByState(BOOKER_ID, BookingState.ALL, 0, 2, "not-a-cursor"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Invalid cursor");
+        assertThatThrownBy(() -> bookingService.getBookingsForOwner(OWNER_ID, BookingState.ALL, -1, 2, null))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> bookingService.getBookingsForOwner(OWNER_ID, BookingState.ALL, 0, 0, null))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void streamsAllBookingsAsNdjson() throws Exception {
+        MvcResult started = mockMvc.perform(get("/bookings/owner").accept(MediaType.APPLICATION_NDJSON)
+                        .header(HEADER_USER_ID, OWNER_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<Integer> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            JsonNode booking = objectMapper.readTree(line);
+            assertThat(booking.get("booker").get("id").asLong()).isEqualTo(BOOKER_ID);
+            ids.add(booking.get("id").asInt());
+        }
+        assertThat(body).endsWith("\n");
+        assertThat(ids).containsExactly(706, 705, 704, 703, 702, 701);
+    }
+
+    private void insertBooking(long id, LocalDateTime start) {
+        testData.insertBooking(id, ITEM_ID, OWNER_ID, BOOKER_ID, start, start.plusHours(1), "WAITING");
+    }
+}
@@ -0,0 +1,171 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.TestData;
+import ru.practicum.shareit.common.SqlStatistics;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every booking query through EXPLAIN and fails when one reads the whole bookings table.
+ * Statements are captured as Hibernate generates them, so a new query shape only needs a call in
+ * {@link #runBookingQueries()} and an index in a new migration.
+ */
+@SpringBootTest
+@Import(TestData.class)
+class BookingQueryPlanTest {
+    private static final int USERS = 50;
+    private static final int ITEMS = 200;
+    private static final int BOOKINGS_PER_ITEM = 20;
+    private static final long OWNER_ID = 1;
+    private static final long BOOKER_ID = 2;
+    private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+    // H2 prints the index chosen for a table as a comment right after the table reference.
+    private static final Pattern BOOKINGS_INDEX = Pattern.compile("\"BOOKINGS\" \"\\w+\"\\s+/\\* PUBLIC\\.(\\w+)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        // Thousands of rows, inserted in JDBC batches rather than through TestData row by row.
+        List<Object[]> users = new ArrayList<>();
+        for (long id = 1; id <= USERS; id++) {
+            users.add(new Object[]{id, "user" + id, "user" + id + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        long bookingId = 1;
+        for (long itemId = 1; itemId <= ITEMS; itemId++) {
+            long ownerId = 1 + itemId % USERS;
+            items.add(new Object[]{itemId, "item " + itemId, ownerId});
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                LocalDateTime start = NOW.plusDays(i - BOOKINGS_PER_ITEM / 2);
+                bookings.add(new Object[]{bookingId++, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(20)),
+                        itemId, ownerId, 1 + (itemId + i) % USERS, BookingStatus.values()[i % 3].name()});
+            }
+            comments.add(new Object[]{itemId, itemId, 1 + (itemId + 1) % USERS, Timestamp.valueOf(NOW)});
+        }
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, owner_id) " +
+                "values (?, ?, 'drill', true, ?)", items);
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, item_id, item_owner_id, " +
+                "booker_id, status) values (?, ?, ?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.batchUpdate("insert into comments (id, text, item_id, author_id, created) " +
+                "values (?, 'nice', ?, ?, ?)", comments);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.clear();
+    }
+
+    @Test
+    void bookingQueriesUseIndexes() {
+        Set<String> statements = captureStatements();
+
+        assertThat(statements).hasSizeGreaterThanOrEqualTo(9);
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertThat(plan)
+                    .as("Plan of %s", sql)
+                    .doesNotContain("BOOKINGS.tableScan", "ITEMS.tableScan", "COMMENTS.tableScan");
+            Matcher bookingsAccess = BOOKINGS_INDEX.matcher(plan);
+            while (bookingsAccess.find()) {
+                assertThat(bookingsAccess.group(1))
+                        .as("Index on bookings in %s", plan)
+                        .matches("PRIMARY_KEY_\\w+|BOOKINGS_\\w+_IDX");
+            }
+        }
+    }
+
+    private Set<String> captureStatements() {
+        SqlStatistics statistics = SqlStatistics.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> runBookingQueries());
+            return new LinkedHashSet<>(statistics.getSql());
+        } finally {
+            SqlStatistics.stop();
+        }
+    }
+
+    private void runBookingQueries() {
+        BookingFilter filter = BookingFilter.of(BookingState.PAST);
+        BookingCursor cursor = new BookingCursor(NOW, 100L);
+        PageRequest page = PageRequest.of(0, 20);
+
+        bookingRepository.findById(1L);
+        bookingRepository.findViewById(1L);
+        bookingRepository.findPageByBooker(BOOKER_ID, filter.statuses(), filter.phases(), cursor.start(), cursor.id(),
+                page);
+        bookingRepository.findPageByOwner(OWNER_ID, filter.statuses(), filter.phases(), cursor.start(), cursor.id(),
+                page);
+        try (var stream = bookingRepository.streamByBooker(BOOKER_ID, filter.statuses(), filter.phases())) {
+            stream.forEach(b -> { });
+        }
+        try (var stream = bookingRepository.streamByOwner(OWNER_ID, filter.statuses(), filter.phases())) {
+            stream.forEach(b -> { });
+        }
+        bookingRepository.findByItemIdAndBookerIdAndStatusAndEndIsBefore(1L, BOOKER_ID, BookingStatus.APPROVED, NOW);
+        bookingRepository.findIntervalsByItemIdAndStatus(1L, BookingStatus.APPROVED);
+        bookingRepository.existsByItemIdAndStatusAndEndAfterAndStartBefore(1L, BookingStatus.APPROVED, NOW,
+                NOW.plusDays(1));
+        bookingRepository.approveIfNoOverlap(1L, 0L, NOW);
+        bookingRepository.startBookings(NOW, 100);
+        bookingRepository.finishBookings(NOW, 100);
+        itemRepository.findOwnerItemViews(OWNER_ID, NOW);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    StringBuilder text = new StringBuilder();
+                    while (plan.next()) {
+                        text.append(plan.getString(1)).append('\n');
+                    }
+                    return text.toString();
+                }
+            }
+        });
+    }
+}
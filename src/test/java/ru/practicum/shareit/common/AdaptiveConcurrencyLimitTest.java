@@ -0,0 +1,79 @@
+package ru.practicum.shareit.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The limit shrinks towards its minimum while requests slow down and grows back once they recover.
+ * Requests over it wait up to their timeout for a release.
+ */
+class AdaptiveConcurrencyLimitTest {
+    private static final int MIN = 10;
+    private static final int MAX = 20;
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(1000);
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(MIN, MAX, 2);
+
+    @Test
+    void rejectsOverLimit() {
+        for (int i = 0; i < MAX; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        assertThat(limit.tryAcquire()).isFalse();
+        limit.release();
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void waitsForReleaseUpToTimeout() throws Exception {
+        for (int i = 0; i < MAX; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        assertThat(limit.tryAcquire(10, TimeUnit.MILLISECONDS)).isFalse();
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limit.tryAcquire(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        assertThat(waiter).isNotDone();
+        limit.release(FAST);
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limit.getInFlight()).isEqualTo(MAX);
+    }
+
+    @Test
+    void followsLatency() {
+        runAtLimit(200, FAST);
+        assertThat(limit.getLimit()).isEqualTo(MAX);
+
+        runAtLimit(1, SLOW);
+        assertThat(limit.getLimit()).isEqualTo(MIN);
+
+        runAtLimit(10, FAST);
+        assertThat(limit.getLimit()).isEqualTo(MAX);
+    }
+
+    /**
+     * Completes rounds of as many requests as the limit lets in, each taking {@code latency}.
+     */
+    private void runAtLimit(int rounds, long latency) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(latency);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.common;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * More requests at once than the pool serves are reported, as many as it serves are not. Requests at once are
+ * bounded by the concurrency limit when it is enabled, otherwise by the Tomcat pool.
+ */
+class ConnectionPoolCheckTest {
+    private static final int POOL_SIZE = 10;
+    private static final int PER_CONNECTION = 2;
+
+    @Test
+    void comparesConcurrencyWithPoolCapacity() {
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setMaximumPoolSize(POOL_SIZE);
+
+            assertThat(check(pool, POOL_SIZE * PER_CONNECTION).exceedsCapacity()).isFalse();
+            assertThat(check(pool, 200).exceedsCapacity()).isTrue();
+            assertThat(check(pool, Integer.MAX_VALUE).getCapacity()).isEqualTo(POOL_SIZE * PER_CONNECTION);
+        }
+    }
+
+    @Test
+    void countsTheBoundInEffect() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        // As sized for the default pool: two streams and up to 16 other requests.
+        ConcurrencyLimitFilter limit = new ConcurrencyLimitFilter(new AdaptiveConcurrencyLimit(8, 16, 2), 2,
+                Duration.ofMillis(100), registry.counter("rejected"), registry.counter("rejected.streams"));
+
+        assertThat(ConnectionPoolConfig.requestConcurrency(limit, false, 200, PER_CONNECTION))
+                .isEqualTo(POOL_SIZE * PER_CONNECTION);
+        assertThat(ConnectionPoolConfig.requestConcurrency(limit, false, 8, PER_CONNECTION)).isEqualTo(12);
+        assertThat(ConnectionPoolConfig.requestConcurrency(limit, true, 200, PER_CONNECTION))
+                .isEqualTo(POOL_SIZE * PER_CONNECTION);
+        assertThat(ConnectionPoolConfig.requestConcurrency(null, false, 200, PER_CONNECTION)).isEqualTo(200);
+        assertThat(ConnectionPoolConfig.requestConcurrency(null, true, 200, PER_CONNECTION))
+                .isEqualTo(Integer.MAX_VALUE);
+    }
+
+    private static ConnectionPoolCheck check(HikariDataSource pool, int requestConcurrency) {
+        return new ConnectionPoolCheck(pool, requestConcurrency, PER_CONNECTION, new SimpleMeterRegistry());
+    }
+}
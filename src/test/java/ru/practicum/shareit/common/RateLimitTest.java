@@ -0,0 +1,83 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.shareit.TestData;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A user over the item creation limit is turned away with 429 while other users still get through.
+ */
+@SpringBootTest(properties = {"shareit.rate-limit.endpoints.item-create.permits-per-second=0.01",
+        "shareit.rate-limit.endpoints.item-create.burst=2"})
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class RateLimitTest {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final long NOISY_USER_ID = 701;
+    private static final long OTHER_USER_ID = 702;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        testData.insertUser(NOISY_USER_ID, "noisy");
+        testData.insertUser(OTHER_USER_ID, "other");
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.clear();
+    }
+
+    @Test
+    void limitsEachUserSeparately() throws Exception {
+        double rejected = rejected();
+
+        createItem(NOISY_USER_ID).andExpect(status().isOk());
+        createItem(NOISY_USER_ID).andExpect(status().isOk());
+        createItem(NOISY_USER_ID)
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"));
+        createItem(OTHER_USER_ID).andExpect(status().isOk());
+
+        assertThat(rejected()).isEqualTo(rejected + 1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from items where owner_id = ?", Long.class,
+                NOISY_USER_ID)).isEqualTo(2);
+    }
+
+    private ResultActions createItem(long userId) throws Exception {
+        return mockMvc.perform(post("/items").header(HEADER_USER_ID, userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"drill\",\"description\":\"cordless drill\",\"available\":\"true\"}"));
+    }
+
+    private double rejected() {
+        return meterRegistry.get("shareit.requests.rejected").tag("limit", "item-create").counter().count();
+    }
+}
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.TestData;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Routes reads with a second pool on the same in-memory database standing in for the replica,
+ * so only the route counters tell the two apart.
+ */
+@SpringBootTest(properties = {"shareit.datasource.replica.url=jdbc:h2:mem:shareit",
+        "shareit.datasource.replica.lag-query=select 0",
+        "shareit.datasource.replica.lag-check-interval-ms=3600000"})
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class ReadReplicaRoutingTest {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final long OWNER_ID = 601;
+    private static final long BOOKER_ID = 602;
+    private static final long ITEM_ID = 601;
+    private static final long BOOKING_ID = 601;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReadReplicaRouting readReplicaRouting;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        testData.insertUser(OWNER_ID, "owner");
+        testData.insertUser(BOOKER_ID, "booker");
+        testData.insertItem(ITEM_ID, OWNER_ID);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        testData.insertBooking(BOOKING_ID, ITEM_ID, OWNER_ID, BOOKER_ID, start, start.plusDays(1), "WAITING");
+    }
+
+    @AfterEach
+    void tearDown() {
+        readReplicaRouting.recordLag(Duration.ZERO);
+        testData.clear();
+    }
+
+    @Test
+    void readsGoToReplica() throws Exception {
+        double replicaReads = reads("replica");
+
+        readBooking(BOOKER_ID);
+
+        assertThat(reads("replica")).isGreaterThan(replicaReads);
+    }
+
+    @Test
+    void readsOfRecentWriterStayOnPrimary() throws Exception {
+        mockMvc.perform(patch("/users/{id}", BOOKER_ID).header(HEADER_USER_ID, BOOKER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"booker2\"}"))
+                .andExpect(status().isOk());
+        double replicaReads = reads("replica");
+        double stickyReads = reads("primary-sticky");
+
+        readBooking(BOOKER_ID);
+
+        assertThat(reads("replica")).isEqualTo(replicaReads);
+        assertThat(reads("primary-sticky")).isGreaterThan(stickyReads);
+
+        // Other users are not affected.
+        readBooking(OWNER_ID);
+        assertThat(reads("replica")).isGreaterThan(replicaReads);
+    }
+
+    @Test
+    void readsStayOnPrimaryWhileReplicaLags() throws Exception {
+        readReplicaRouting.recordLag(Duration.ofMinutes(1));
+        double replicaReads = reads("replica");
+        double laggingReads = reads("primary-lag");
+
+        readBooking(OWNER_ID);
+
+        assertThat(reads("replica")).isEqualTo(replicaReads);
+        assertThat(reads("primary-lag")).isGreaterThan(laggingReads);
+        assertThat(meterRegistry.get("shareit.datasource.replica.lag").gauge().value()).isEqualTo(60.0);
+    }
+
+    @Test
+    void readsOnReplicaAreNotCached() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        double replicaReads = reads("replica");
+
+        readOnly.executeWithoutResult(tx -> userRepository.findById(OWNER_ID));
+
+        assertThat(reads("replica")).isGreaterThan(replicaReads);
+        assertThat(entityManagerFactory.getCache().contains(User.class, OWNER_ID)).isFalse();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> userRepository.findById(OWNER_ID));
+        assertThat(entityManagerFactory.getCache().contains(User.class, OWNER_ID)).isTrue();
+    }
+
+    private void readBooking(long userId) throws Exception {
+        mockMvc.perform(get("/bookings/{id}", BOOKING_ID).header(HEADER_USER_ID, userId))
+                .andExpect(status().isOk());
+    }
+
+    private double reads(String route) {
+        return meterRegistry.get("shareit.datasource.reads").tag("route", route).counter().count();
+    }
+}
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.common;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.TestData;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Users and items come from the second-level cache once loaded, and writes through the services
+ * leave no stale copies behind.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class SecondLevelCacheTest {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final long OWNER_ID = 5101;
+    private static final long BOOKER_ID = 5102;
+    private static final long ITEM_ID = 5101;
+    private static final long OTHER_ITEM_ID = 5102;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TestData testData;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = testData.statistics();
+        testData.insertUser(OWNER_ID, "owner");
+        testData.insertUser(BOOKER_ID, "booker");
+        testData.insertItem(ITEM_ID, OWNER_ID);
+        testData.insertItem(OTHER_ITEM_ID, OWNER_ID, "saw", "hand saw", null);
+        LocalDateTime start = LocalDateTime.now().minusHours(1);
+        testData.insertBooking(5101, ITEM_ID, OWNER_ID, BOOKER_ID, start, start.plusDays(1), "APPROVED");
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.clear();
+    }
+
+    @Test
+    void loadsByIdOnce() {
+        inTransaction(() -> itemRepository.findById(ITEM_ID));
+        inTransaction(() -> userRepository.findById(OWNER_ID));
+
+        statistics.clear();
+        Item item = inTransaction(() -> itemRepository.findById(ITEM_ID)).orElseThrow();
+        User owner = inTransaction(() -> userRepository.findById(OWNER_ID)).orElseThrow();
+
+        assertThat(item.getName()).isEqualTo("drill");
+        assertThat(owner.getName()).isEqualTo("owner");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void updatedUserIsCachedWithItsChanges() throws Exception {
+        inTransaction(() -> userRepository.findById(OWNER_ID));
+
+        mockMvc.perform(patch("/users/{id}", OWNER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"owner2\"}"))
+                .andExpect(status().isOk());
+
+        statistics.clear();
+        assertThat(inTransaction(() -> userRepository.findById(OWNER_ID)).orElseThrow().getName())
+                .isEqualTo("owner2");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void updatedItemIsCachedWithItsNextVersion() throws Exception {
+        inTransaction(() -> itemRepository.findById(ITEM_ID));
+
+        for (String name : List.of("hammer", "mallet")) {
+            mockMvc.perform(patch("/items/{id}", ITEM_ID).header(HEADER_USER_ID, OWNER_ID)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"" + name + "\"}"))
+                    .andExpect(status().isOk());
+        }
+
+        statistics.clear();
+        Item item = inTransaction(() -> itemRepository.findById(ITEM_ID)).orElseThrow();
+        assertThat(item.getName()).isEqualTo("mallet");
+        assertThat(item.getVersion()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(jdbcTemplate.queryForObject("select version from items where id = ?", Long.class, ITEM_ID))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void itemsOfOwnerAreCachedUntilTheyChange() throws Exception {
+        inTransaction(() -> itemRepository.findAllByOwnerId(OWNER_ID));
+
+        statistics.clear();
+        assertThat(inTransaction(() -> itemRepository.findAllByOwnerId(OWNER_ID))).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        mockMvc.perform(post("/items").header(HEADER_USER_ID, OWNER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"ladder\",\"description\":\"step ladder\",\"available\":\"true\"}"))
+                .andExpect(status().isOk());
+
+        assertThat(inTransaction(() -> itemRepository.findAllByOwnerId(OWNER_ID)))
+                .extracting(Item::getName)
+                .containsExactlyInAnyOrder("drill", "saw", "ladder");
+    }
+
+    @Test
+    void bookingUpdatesKeepItemsCached() {
+        inTransaction(() -> itemRepository.findById(ITEM_ID));
+        inTransaction(() -> itemRepository.findAllByOwnerId(OWNER_ID));
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            itemRepository.advanceBookingVersions(List.of(ITEM_ID));
+            bookingRepository.startBookings(LocalDateTime.now(), 10);
+        });
+
+        statistics.clear();
+        inTransaction(() -> itemRepository.findById(ITEM_ID));
+        inTransaction(() -> itemRepository.findAllByOwnerId(OWNER_ID));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void deletedUserTakesTheirItemsAlong() throws Exception {
+        inTransaction(() -> itemRepository.findById(ITEM_ID));
+        inTransaction(() -> userRepository.findById(OWNER_ID));
+
+        mockMvc.perform(delete("/users/{id}", OWNER_ID)).andExpect(status().isOk());
+
+        assertThat(entityManagerFactory.getCache().contains(User.class, OWNER_ID)).isFalse();
+        assertThat(entityManagerFactory.getCache().contains(Item.class, ITEM_ID)).isFalse();
+        assertThat(inTransaction(() -> itemRepository.findById(ITEM_ID))).isEmpty();
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return transactionTemplate.execute(tx -> action.get());
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.TestData;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delivers outbox events to a handler that fails on one of them: the rest of its batch still gets through,
+ * the batches behind it follow on the next run and the failing event is retried until it runs out of attempts.
+ */
+@SpringBootTest(properties = {"shareit.outbox.batch-size=4", "shareit.outbox.max-attempts=3"})
+@Import(TestData.class)
+class OutboxDispatcherTest {
+    private static final long POISON_COMMENT_ID = 6;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private RecordingHandler handler;
+
+    @AfterEach
+    void tearDown() {
+        testData.clear();
+    }
+
+    @Test
+    void failingEventDoesNotBlockTheOthers() {
+        List<CommentAdded> events = LongStream.rangeClosed(1, 10)
+                .mapToObj(id -> new CommentAdded(id, id, 1L))
+                .toList();
+        transactionTemplate.executeWithoutResult(tx -> outboxPublisher.publishAll(events));
+
+        // The first batch, then the second one event by event.
+        assertThat(outboxDispatcher.dispatch()).isEqualTo(7);
+        assertThat(attempts()).containsExactly(1, 0, 0);
+        assertThat(outboxDispatcher.dispatch()).isEqualTo(2);
+        assertThat(handler.delivered).containsExactlyInAnyOrderElementsOf(events.stream()
+                .filter(event -> event.commentId() != POISON_COMMENT_ID)
+                .toList());
+        assertThat(attempts()).containsExactly(2);
+
+        outboxDispatcher.dispatch();
+        assertThat(attempts()).containsExactly(3);
+        // Out of attempts, the event stays in the outbox with its error but is not claimed any more.
+        assertThat(outboxDispatcher.dispatch()).isZero();
+        assertThat(attempts()).containsExactly(3);
+        assertThat(handler.delivered).hasSize(9);
+    }
+
+    private List<Integer> attempts() {
+        return jdbcTemplate.queryForList("select attempts from outbox_events order by id", Integer.class);
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingHandler recordingHandler() {
+            return new RecordingHandler();
+        }
+    }
+
+    static class RecordingHandler implements DomainEventHandler {
+        private final List<DomainEvent> delivered = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void handle(List<DomainEvent> events) {
+            if (events.stream().anyMatch(e -> e instanceof CommentAdded c && c.commentId() == POISON_COMMENT_ID)) {
+                throw new IllegalStateException("Comment " + POISON_COMMENT_ID + " can not be handled");
+            }
+            delivered.addAll(events);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.StatementCounter;
+import ru.practicum.shareit.TestData;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each item endpoint issues. The dataset has several items, bookers and
+ * bookings per item, so a per-row lazy load shows up as extra statements.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class ItemEndpointQueryCountTest {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final long OWNER_ID = 1;
+    private static final long BOOKER_ID = 2;
+    private static final int ITEMS = 3;
+    private static final int BOOKINGS_PER_ITEM = 4;
+    private static final int SEARCHED_ITEMS = 25;
+    private static final int IMPORTED_ITEMS = 120;
+    private static final int JDBC_BATCH_SIZE = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    private StatementCounter statements;
+
+    @BeforeEach
+    void setUp() {
+        statements = new StatementCounter(mockMvc, testData);
+        LocalDateTime now = LocalDateTime.now();
+        testData.insertUser(OWNER_ID, "owner");
+        for (long userId = BOOKER_ID; userId < BOOKER_ID + BOOKINGS_PER_ITEM; userId++) {
+            testData.insertUser(userId, "booker");
+        }
+        long bookingId = 1;
+        for (long itemId = 1; itemId <= ITEMS; itemId++) {
+            testData.insertItem(itemId, OWNER_ID, "drill " + itemId, "cordless drill", null);
+            testData.insertItemStats(itemId);
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                LocalDateTime start = now.plusDays(i * 2L - 3);
+                testData.insertBooking(bookingId++, itemId, OWNER_ID, BOOKER_ID + i, start, start.plusDays(1),
+                        "WAITING");
+            }
+            testData.insertComment(itemId, itemId, BOOKER_ID, now);
+        }
+        itemSearchIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.clear();
+    }
+
+    @Test
+    void itemsOfOwner() throws Exception {
+        statements.assertStatements(get("/items").header(HEADER_USER_ID, OWNER_ID), 2);
+    }
+
+    @Test
+    void unchangedItemsOfOwner() throws Exception {
+        String eTag = statements.eTag(get("/items").header(HEADER_USER_ID, OWNER_ID));
+        // The version lookup only, not the owner list query.
+        statements.assertStatements(get("/items").header(HEADER_USER_ID, OWNER_ID)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag), status().isNotModified(), 1);
+    }
+
+    @Test
+    void changedItemsOfOwner() throws Exception {
+        String eTag = statements.eTag(get("/items").header(HEADER_USER_ID, OWNER_ID));
+        mockMvc.perform(patch("/items/2").header(HEADER_USER_ID, OWNER_ID)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"hammer\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items").header(HEADER_USER_ID, OWNER_ID).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andExpect(content().string(containsString("hammer")));
+    }
+
+    @Test
+    void itemById() throws Exception {
+        statements.assertStatements(get("/items/1").header(HEADER_USER_ID, OWNER_ID), 4);
+    }
+
+    @Test
+    void cachedItemById() throws Exception {
+        mockMvc.perform(get("/items/1").header(HEADER_USER_ID, OWNER_ID)).andExpect(status().isOk());
+        // The version lookup only, the item, comments and stats come from the caches.
+        statements.assertStatements(get("/items/1").header(HEADER_USER_ID, OWNER_ID), 1);
+    }
+
+    @Test
+    void unchangedItemById() throws Exception {
+        String eTag = statements.eTag(get("/items/1").header(HEADER_USER_ID, OWNER_ID));
+        testData.clearCaches();
+        // The version lookup only, not the item, its comments and stats.
+        statements.assertStatements(get("/items/1").header(HEADER_USER_ID, OWNER_ID)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag), status().isNotModified(), 1);
+    }
+
+    @Test
+    void changedItemById() throws Exception {
+        String eTag = statements.eTag(get("/items/1").header(HEADER_USER_ID, OWNER_ID));
+        mockMvc.perform(patch("/items/1").header(HEADER_USER_ID, OWNER_ID)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"hammer\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items/1").header(HEADER_USER_ID, OWNER_ID).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andExpect(content().string(containsString("hammer")));
+    }
+
+    @Test
+    void searchItems() throws Exception {
+        statements.assertStatements(get("/items/search").param("text", "drill").header(HEADER_USER_ID, OWNER_ID), 1);
+    }
+
+    @Test
+    void searchReturnsEveryMatchWithoutSize() throws Exception {
+        for (long itemId = ITEMS + 1; itemId <= SEARCHED_ITEMS; itemId++) {
+            testData.insertItem(itemId, OWNER_ID, "drill " + itemId, "cordless drill", null);
+        }
+        itemSearchIndex.rebuild();
+        mockMvc.perform(get("/items/search").param("text", "drill").header(HEADER_USER_ID, OWNER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(SEARCHED_ITEMS));
+        mockMvc.perform(get("/items/search").param("text", "drill").param("from", "20").param("size", "10")
+                        .header(HEADER_USER_ID, OWNER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(SEARCHED_ITEMS - 20));
+    }
+
+    @Test
+    void importItemsInBatches() throws Exception {
+        StringBuilder csv = new StringBuilder("name,description,available\n");
+        for (int i = 0; i < IMPORTED_ITEMS; i++) {
+            csv.append("saw ").append(i).append(",hand saw,true\n");
+        }
+        // The seeded items take explicit ids from the start of the sequence.
+        jdbcTemplate.execute("alter sequence items_seq restart with 1000");
+        testData.statistics().clear();
+        MvcResult result = mockMvc.perform(post("/items/import").header(HEADER_USER_ID, OWNER_ID)
+                        .contentType("text/csv").content(csv.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("{\"imported\":" + IMPORTED_ITEMS + ",\"failed\":0,\"done\":true}")));
+        // At most one insert per JDBC batch and one sequence call per block of ids, not one insert per item,
+        // and one insert of the stats rows.
+        int batches = (IMPORTED_ITEMS + JDBC_BATCH_SIZE - 1) / JDBC_BATCH_SIZE;
+        assertThat(testData.statistics().getPrepareStatementCount()).isLessThanOrEqualTo(batches * 2L + 1);
+    }
+}
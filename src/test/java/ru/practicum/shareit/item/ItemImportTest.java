@@ -0,0 +1,67 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.TestData;
+import ru.practicum.shareit.item.dto.ItemImportProgress;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A row the database refuses after it passed validation fails alone, not with the rest of its chunk.
+ */
+@SpringBootTest
+@Import(TestData.class)
+class ItemImportTest {
+    private static final long OWNER_ID = 1;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        testData.insertUser(OWNER_ID, "owner");
+        jdbcTemplate.execute("alter table items add constraint items_not_broken check (name <> 'broken')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("alter table items drop constraint items_not_broken");
+        testData.clear();
+    }
+
+    @Test
+    void refusedRowFailsAlone() throws Exception {
+        String csv = "name,description,available\nsaw,hand saw,true\nbroken,hand saw,true\nhammer,claw hammer,true\n";
+        List<ItemImportProgress> progress = new ArrayList<>();
+
+        itemService.importItems(OWNER_ID, ItemImportFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), progress::add);
+
+        assertThat(progress).filteredOn(line -> line.getRow() != null)
+                .extracting(ItemImportProgress::getRow)
+                .containsExactly(2L);
+        ItemImportProgress totals = progress.getLast();
+        assertThat(totals.getImported()).isEqualTo(2);
+        assertThat(totals.getFailed()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("select name from items order by name", String.class))
+                .containsExactly("hammer", "saw");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from item_stats", Long.class)).isEqualTo(2);
+    }
+}
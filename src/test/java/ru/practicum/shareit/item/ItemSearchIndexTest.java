@@ -0,0 +1,143 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Matching, ranking and rebuilding of the item search index, outside of any transaction so changes apply
+ * right away.
+ */
+class ItemSearchIndexTest {
+    private ItemRepository repository;
+    private ItemSearchIndex index;
+    private final List<ItemSearchDocument> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ItemRepository.class);
+        when(repository.findSearchDocuments(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int size = invocation.<Pageable>getArgument(1).getPageSize();
+            return rows.stream().filter(row -> row.getId() > afterId).limit(size).toList();
+        });
+        index = new ItemSearchIndex(repository);
+        rows.add(document(1, "Cordless drill", "Drills wood and metal"));
+        rows.add(document(2, "Hammer", "Claw hammer for drilling nails out"));
+        rows.add(document(3, "Saw", "Hand saw, sharp"));
+        index.rebuild();
+    }
+
+    @Test
+    void foldsCase() {
+        assertThat(index.search("DRILL", 0, 10)).containsExactly(1L, 2L);
+        assertThat(index.search("CoRdLeSs DrIlL", 0, 10)).containsExactly(1L);
+        assertThat(index.search("--", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void matchesWordsBySubstring() {
+        assertThat(index.search("rill", 0, 10)).containsExactly(1L, 2L);
+        assertThat(index.search("dr", 0, 10)).containsExactly(1L, 2L);
+        assertThat(index.search("ammer", 0, 10)).containsExactly(2L);
+        assertThat(index.search("wrench", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void severalWordsMatchAsPhrase() {
+        assertThat(index.search("cordless drill", 0, 10)).containsExactly(1L);
+        assertThat(index.search("less dri", 0, 10)).containsExactly(1L);
+        assertThat(index.search("drill cordless", 0, 10)).isEmpty();
+        assertThat(index.search("hand saw", 0, 10)).containsExactly(3L);
+        assertThat(index.search("saw, sharp", 0, 10)).containsExactly(3L);
+        assertThat(index.search("saw sharp", 0, 10)).isEmpty();
+        assertThat(index.search(" cordless", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void ranksNameOverDescriptionAndWholeWordOverSubstring() {
+        index.indexAfterCommit(item(4, "Drills", "Set of two"));
+        index.indexAfterCommit(item(5, "Bits", "For any drill"));
+        index.indexAfterCommit(item(6, "Drill press", "Bench mounted"));
+
+        // Whole word in the name, then part of a word in the name, then whole word in the description,
+        // then part of a word there. Ties go to the lower id.
+        assertThat(index.search("drill", 0, 10)).containsExactly(1L, 6L, 4L, 5L, 2L);
+    }
+
+    @Test
+    void pagesByFromAndSize() {
+        index.indexAfterCommit(item(4, "Drill bits", "For any drill"));
+
+        assertThat(index.search("drill", 0, 2)).containsExactly(1L, 4L);
+        assertThat(index.search("drill", 1, 2)).containsExactly(4L, 2L);
+        assertThat(index.search("drill", 2, 2)).containsExactly(2L);
+        assertThat(index.search("drill", 3, 2)).isEmpty();
+        assertThat(index.search("drill", 1, null)).containsExactly(4L, 2L);
+    }
+
+    @Test
+    void hidesUnavailableAndRemovedItems() {
+        Item drill = item(1, "Cordless drill", "Drills wood and metal");
+        drill.setAvailable(false);
+        index.indexAfterCommit(drill);
+        index.removeAfterCommit(2L);
+
+        assertThat(index.search("drill", 0, 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+
+        drill.setAvailable(true);
+        index.indexAfterCommit(drill);
+        assertThat(index.search("drill", 0, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void rebuildReplaysChangesMadeWhileLoading() {
+        ItemSearchIndex fresh = new ItemSearchIndex(repository);
+        when(repository.findSearchDocuments(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            // Committed after this batch was read: one new item and one removed.
+            fresh.indexAfterCommit(item(4, "Drill press", "Bench drill"));
+            fresh.removeAfterCommit(1L);
+            return rows;
+        });
+
+        assertThat(fresh.isReady()).isFalse();
+        assertThat(fresh.rebuild()).isEqualTo(3);
+
+        assertThat(fresh.isReady()).isTrue();
+        assertThat(fresh.search("drill", 0, 10)).containsExactly(4L, 2L);
+        assertThat(fresh.search("saw", 0, 10)).containsExactly(3L);
+    }
+
+    private static Item item(long id, String name, String description) {
+        return Item.builder().id(id).name(name).description(description).available(true).build();
+    }
+
+    private static ItemSearchDocument document(long id, String name, String description) {
+        return new ItemSearchDocument() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.TestData;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.event.OutboxDispatcher;
+import ru.practicum.shareit.item.dto.CommentCreateDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Changes comments and bookings through the services, delivers the outbox events and checks that
+ * the incrementally maintained item stats match a recount from scratch.
+ */
+@SpringBootTest
+@Import(TestData.class)
+class ItemStatsTest {
+    private static final long OWNER_ID = 1;
+    private static final long BOOKER_ID = 2;
+    // Apart from the ids of other tests, BookingIntervalIndex keeps the approvals it has seen.
+    private static final long ITEM_ID = 501;
+    private static final long OTHER_ITEM_ID = 502;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemStatsRecorder itemStatsRecorder;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from outbox_events");
+        testData.insertUser(OWNER_ID, "owner");
+        testData.insertUser(BOOKER_ID, "booker");
+        testData.insertItem(ITEM_ID, OWNER_ID);
+        testData.insertItem(OTHER_ITEM_ID, OWNER_ID);
+        LocalDateTime start = LocalDateTime.now().minusDays(3);
+        testData.insertBooking(1000, ITEM_ID, OWNER_ID, BOOKER_ID, start, start.plusDays(1), "APPROVED");
+        itemStatsRecorder.reconcile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.clear();
+    }
+
+    @Test
+    void statsFollowCommentsAndBookings() {
+        assertThat(itemService.getItem(ITEM_ID).getRentalCount()).isEqualTo(1);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int day = 1; day <= 4; day++) {
+            LocalDateTime start = now.plusDays(day * 2L);
+            bookingIds.add(bookingService.createBooking(BOOKER_ID,
+                    new BookingCreateDto(ITEM_ID, start, start.plusDays(1))).getId());
+        }
+        bookingIds.add(bookingService.createBooking(BOOKER_ID,
+                new BookingCreateDto(OTHER_ITEM_ID, now.plusDays(1), now.plusDays(2))).getId());
+        bookingService.updateBookingStatus(OWNER_ID, bookingIds.get(0), true);
+        bookingService.updateBookingStatus(OWNER_ID, bookingIds.get(1), false);
+        bookingService.updateBookingStatuses(OWNER_ID, bookingIds.subList(2, 5), true);
+        itemService.addComment(ITEM_ID, BOOKER_ID, CommentCreateDto.builder().text("nice").build());
+        ItemDto created = itemService.createItem(ItemDto.builder()
+                .name("saw").description("hand saw").available("true").build(), OWNER_ID);
+        // Counters follow only once the events are delivered.
+        assertThat(itemService.getItem(ITEM_ID).getBookingCount()).isEqualTo(1);
+
+        assertThat(outboxDispatcher.dispatch()).isEqualTo(10);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from outbox_events", Long.class)).isZero();
+
+        ItemDto item = itemService.getItem(ITEM_ID);
+        assertThat(item.getCommentCount()).isEqualTo(1);
+        assertThat(item.getBookingCount()).isEqualTo(5);
+        assertThat(item.getRentalCount()).isEqualTo(4);
+        assertThat(item.getLastRented()).isEqualTo(now.plusDays(8));
+        assertThat(itemService.getItem(OTHER_ITEM_ID).getRentalCount()).isEqualTo(1);
+        assertThat(itemService.getItem(created.getId()).getBookingCount()).isZero();
+
+        List<Map<String, Object>> maintained = stats();
+        itemStatsRecorder.reconcile();
+        assertThat(stats()).isEqualTo(maintained);
+    }
+
+    private List<Map<String, Object>> stats() {
+        return jdbcTemplate.queryForList("select * from item_stats order by item_id");
+    }
+}
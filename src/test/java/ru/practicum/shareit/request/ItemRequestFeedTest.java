@@ -0,0 +1,132 @@
+package ru.practicum.shareit.request;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.TestData;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Request feeds page newest first by cursor and load the answers of a page in one statement.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class ItemRequestFeedTest {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    private static final long REQUESTER_ID = 801;
+    private static final long OTHER_REQUESTER_ID = 802;
+    private static final long OWNER_ID = 803;
+    private static final int REQUESTS = 5;
+    // Seeded ids stay clear of the ones generated for the requests and items the tests create.
+    private static final int FIRST_ID = 9000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        testData.insertUser(REQUESTER_ID, "requester");
+        testData.insertUser(OTHER_REQUESTER_ID, "other");
+        testData.insertUser(OWNER_ID, "owner");
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+        // Requests 1-5 of the requester and 6-10 of the other one, the even ones answered by two items each.
+        for (long id = FIRST_ID + 1; id <= FIRST_ID + REQUESTS * 2; id++) {
+            long requesterId = id <= FIRST_ID + REQUESTS ? REQUESTER_ID : OTHER_REQUESTER_ID;
+            testData.insertRequest(id, requesterId, "need a drill " + id, created.plusMinutes(id));
+            if (id % 2 == 0) {
+                for (long item = 0; item < 2; item++) {
+                    testData.insertItem(id * 10 + item, OWNER_ID, "drill", "cordless drill", id);
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        testData.clear();
+    }
+
+    @Test
+    void ownRequestsNewestFirstWithAnswers() throws Exception {
+        mockMvc.perform(get("/requests").header(HEADER_USER_ID, REQUESTER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(REQUESTS))
+                .andExpect(jsonPath("$[0].id").value(FIRST_ID + 5))
+                .andExpect(jsonPath("$[0].items.length()").value(0))
+                .andExpect(jsonPath("$[1].id").value(FIRST_ID + 4))
+                .andExpect(jsonPath("$[1].items[*].id").value(contains((FIRST_ID + 4) * 10, (FIRST_ID + 4) * 10 + 1)))
+                .andExpect(jsonPath("$[1].items[0].ownerId").value(OWNER_ID))
+                .andExpect(header().doesNotExist(HEADER_NEXT_CURSOR));
+    }
+
+    @Test
+    void otherRequestsPagedByCursor() throws Exception {
+        Statistics statistics = testData.statistics();
+        MvcResult first = mockMvc.perform(get("/requests/all").param("size", "3")
+                        .header(HEADER_USER_ID, REQUESTER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(FIRST_ID + 10, FIRST_ID + 9, FIRST_ID + 8)))
+                .andExpect(jsonPath("$[0].items.length()").value(2))
+                .andReturn();
+        String cursor = first.getResponse().getHeader(HEADER_NEXT_CURSOR);
+        assertThat(cursor).isNotNull();
+
+        statistics.clear();
+        mockMvc.perform(get("/requests/all").param("size", "3").param("cursor", cursor)
+                        .header(HEADER_USER_ID, REQUESTER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(FIRST_ID + 7, FIRST_ID + 6)))
+                .andExpect(jsonPath("$[1].items.length()").value(2))
+                .andExpect(header().doesNotExist(HEADER_NEXT_CURSOR));
+        // The page of requests and the answers of all of them; the user check is cached.
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void answeringItemKeepsRequest() throws Exception {
+        mockMvc.perform(post("/requests").header(HEADER_USER_ID, REQUESTER_ID)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"description\":\"need a ladder\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.items.length()").value(0));
+        Long requestId = jdbcTemplate.queryForObject("select id from requests where description = 'need a ladder'",
+                Long.class);
+        mockMvc.perform(post("/items").header(HEADER_USER_ID, OWNER_ID).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"ladder\",\"description\":\"tall\",\"available\":\"true\"," +
+                                "\"requestId\":" + requestId + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requestId").value(requestId));
+        mockMvc.perform(get("/requests/" + requestId).header(HEADER_USER_ID, OTHER_REQUESTER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("ladder"));
+        mockMvc.perform(post("/items").header(HEADER_USER_ID, OWNER_ID).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"ladder\",\"description\":\"tall\",\"available\":\"true\"," +
+                                "\"requestId\":" + (requestId + 1000) + "}"))
+                .andExpect(status().isNotFound());
+    }
+}